@@ -0,0 +1,368 @@
+/** Copyright 2010 Timo Scheuer
+ * 
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.dfki.allegro.scorm.annotation;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+
+/** Annotation processor which generates the validators of the SCORM
+ *  constraints. For every class with methods annotated by
+ *  <code>ScormSizeLimit</code>, <code>ScormRealRange</code> or
+ *  <code>ScormIdentifier</code> a package private class
+ *  <code>&lt;Class&gt;Constraints</code> is generated. It holds one
+ *  static method per annotated method with the same name, which is
+ *  called by the annotated method first. The limits are compiled in
+ *  as constants, so the checks are cheap and can be inlined.
+ *
+ *  The checks depend on the name of the annotated method:
+ *  <ul>
+ *  <li><code>set*</code> and <code>add*</code>: the first argument is
+ *   checked. The validator has the same parameters as the method.
+ *   The size of collections and the length of strings (any type with a
+ *   method <code>length()</code>) is checked against the size limit,
+ *   <code>Float</code> values against the range. Identifiers must not
+ *   be empty.</li>
+ *  <li><code>create*</code>: the number of elements of the collection
+ *   is checked before an element is added. The validator takes the
+ *   number of elements, which the caller has read anyway.</li>
+ *  </ul>
+ *  Other methods are not checked.
+ *
+ *  The processor is not part of the library. It is built separately
+ *  from <code>src/apt</code> together with the annotations into
+ *  <code>lib/constraint-processor.jar</code>, which registers it as
+ *  service. Eclipse runs it via the factory path of the project, javac
+ *  via <code>-processorpath lib/constraint-processor.jar</code>.
+ *
+ * @author Timo Scheuer
+ *
+ */
+@SupportedAnnotationTypes({
+	"de.dfki.allegro.scorm.annotation.ScormSizeLimit",
+	"de.dfki.allegro.scorm.annotation.ScormRealRange",
+	"de.dfki.allegro.scorm.annotation.ScormIdentifier"})
+public class ConstraintProcessor extends AbstractProcessor {
+
+	/** Suffix of the generated class names.*/
+	private static final String SUFFIX = "Constraints";
+	/** Exception thrown if a size limit is exceeded.*/
+	private static final String SIZE_EXCEPTION =
+		"de.dfki.allegro.scorm.ScormObjectSizeOutOfLimitException";
+
+
+	/** Get the latest supported source version. The processor only uses
+	 *  methods and their parameters, so it works with newer sources, too.
+	 * 
+	 * @return the latest source version of the compiler
+	 */
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	/** Generate the validators of all annotated methods of a round.
+	 * 
+	 * @param annotations  the annotation types to process
+	 * @param round  the actual round
+	 * @return <code>true</code>, the annotations are claimed
+	 */
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+		Map<TypeElement, List<ExecutableElement>> methods =
+			new LinkedHashMap<TypeElement, List<ExecutableElement>>();
+		for (TypeElement a : annotations)
+			for (ExecutableElement m : ElementFilter.methodsIn(round.getElementsAnnotatedWith(a))) {
+				if (!isChecked(m))
+					continue;
+				TypeElement t = (TypeElement)m.getEnclosingElement();
+				List<ExecutableElement> l = methods.get(t);
+				if (l == null) {
+					l = new ArrayList<ExecutableElement>();
+					methods.put(t, l);
+				}
+				if (!l.contains(m))
+					l.add(m);
+			}
+		for (Map.Entry<TypeElement, List<ExecutableElement>> e : methods.entrySet())
+			generate(e.getKey(), e.getValue());
+		return true;
+	}
+
+	/** Generate the validator class of a type.
+	 * 
+	 * @param t  the type holding the annotated methods
+	 * @param methods  the annotated methods
+	 */
+	private void generate(TypeElement t, List<ExecutableElement> methods) {
+		PackageElement p = processingEnv.getElementUtils().getPackageOf(t);
+		String name = className(t);
+		String qualified = p.isUnnamed() ? name : p.getQualifiedName() + "." + name;
+		try {
+			PrintWriter w = new PrintWriter(processingEnv.getFiler().createSourceFile(
+					qualified, t).openWriter());
+			try {
+				if (!p.isUnnamed())
+					w.println("package " + p.getQualifiedName() + ";");
+				w.println();
+				w.println();
+				w.println("/** Validators of the SCORM constraints of <code>" +
+						t.getSimpleName() + "</code>.");
+				w.println(" *  Generated by " + getClass().getName() + ", do not edit.");
+				w.println(" */");
+				w.println("final class " + name + " {");
+				w.println();
+				w.println("\t/** No instances.*/");
+				w.println("\tprivate " + name + "() {");
+				w.println("\t}");
+				for (ExecutableElement m : methods)
+					generate(t, m, w);
+				w.println();
+				w.println("}");
+			} finally {
+				w.close();
+			}
+		} catch (IOException e) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+					"Cannot write " + qualified + ": " + e.getMessage(), t);
+		}
+	}
+
+	/** Generate the validator of a method.
+	 * 
+	 * @param t  the type holding the method
+	 * @param m  the annotated method
+	 * @param w  the writer of the validator class
+	 */
+	private void generate(TypeElement t, ExecutableElement m, PrintWriter w) {
+		String name = m.getSimpleName().toString();
+		String signature = t.getSimpleName() + "." + name + "()";
+		ScormSizeLimit size = m.getAnnotation(ScormSizeLimit.class);
+		ScormRealRange range = m.getAnnotation(ScormRealRange.class);
+		boolean identifier = m.getAnnotation(ScormIdentifier.class) != null;
+
+		if (name.startsWith("create")) {
+			w.println();
+			w.println("\t/** Check the size limit before <code>" + name + "()</code>.");
+			w.println("\t * ");
+			w.println("\t * @param count  number of elements of the collection");
+			w.println("\t */");
+			w.println("\tstatic void " + name + "(int count) {");
+			w.println("\t\tif (count >= " + size.value() + ")");
+			w.println("\t\t\tthrow new " + SIZE_EXCEPTION + "(\"@" + signature +
+					" You tried to create a new element but the maximum limit of " +
+					size.value() + " elements has already been reached!\");");
+			w.println("\t}");
+			return;
+		}
+		List<? extends VariableElement> params = m.getParameters();
+		if (params.isEmpty()) {
+			error("The constrained method has no argument to check!", m);
+			return;
+		}
+		TypeMirror type = params.get(0).asType();
+		String arg = params.get(0).getSimpleName().toString();
+
+		StringBuilder b = new StringBuilder();
+		for (VariableElement v : params) {
+			if (b.length() > 0)
+				b.append(", ");
+			b.append(parameterType(v.asType())).append(' ')
+				.append(v.getSimpleName());
+		}
+		w.println();
+		w.println("\t/** Check the arguments of <code>" + name + "()</code>.");
+		w.println("\t * ");
+		for (VariableElement v : params)
+			w.println("\t * @param " + v.getSimpleName() + "  argument of <code>" +
+					name + "()</code>");
+		w.println("\t */");
+		w.println("\tstatic void " + name + "(" + b + ") {");
+		if (identifier) {
+			if (!isType(type, "java.lang.String"))
+				error("Identifiers have to be Strings!", m);
+			w.println("\t\tif (" + arg + ".length() == 0)");
+			w.println("\t\t\tthrow new RuntimeException(\"@" + signature +
+					" An empty String is no valid long identifier (URI)!\");");
+		}
+		if (size != null) {
+			if (isAssignable(type, "java.util.Collection")) {
+				w.println("\t\tif (" + arg + ".size() > " + size.value() + ")");
+				w.println("\t\t\tthrow new " + SIZE_EXCEPTION + "(\"@" + signature +
+						" You tried to set a collection of \" + " + arg +
+						".size() + \" elements but the maximum number allowed is " +
+						size.value() + "!\");");
+				if (size.min() > 0) {
+					w.println("\t\tif (" + arg + ".size() < " + size.min() + ")");
+					w.println("\t\t\tthrow new " + SIZE_EXCEPTION + "(\"@" + signature +
+							" You tried to set a collection of \" + " + arg +
+							".size() + \" elements but the minimum number allowed is " +
+							size.min() + "!\");");
+				}
+			} else if (hasLength(type)) {
+				w.println("\t\tif (" + arg + ".length() > " + size.value() + ")");
+				w.println("\t\t\tthrow new " + SIZE_EXCEPTION + "(\"@" + signature +
+						" You tried to set '\" + " + arg + " + \"' which has a length of \" + " +
+						arg + ".length() + \" characters that is bigger that the maximum allowed length of " +
+						size.value() + "!\");");
+			} else
+				error("Size limits apply to strings and collections only!", m);
+		}
+		if (range != null) {
+			if (!isType(type, "java.lang.Float") && type.getKind() != TypeKind.FLOAT)
+				error("Ranges apply to Float arguments only!", m);
+			w.println("\t\tif (" + arg + " < " + literal(range.minValue()) + ")");
+			w.println("\t\t\tthrow new RuntimeException(\"@" + signature +
+					" The value '\" + " + arg + " + \"' is smaller than the minimum allowed value '" +
+					range.minValue() + "'!\");");
+			w.println("\t\tif (" + arg + " > " + literal(range.maxValue()) + ")");
+			w.println("\t\t\tthrow new RuntimeException(\"@" + signature +
+					" The value '\" + " + arg + " + \"' is bigger than the maximum allowed value '" +
+					range.maxValue() + "'!\");");
+		}
+		w.println("\t}");
+	}
+
+	/** Check if a validator is generated for a method.
+	 * 
+	 * @param m  the annotated method
+	 * @return <code>true</code> iff the arguments or the collection
+	 *          size are checked
+	 */
+	private static boolean isChecked(ExecutableElement m) {
+		String n = m.getSimpleName().toString();
+		if (n.startsWith("create"))
+			return m.getAnnotation(ScormSizeLimit.class) != null;
+		return n.startsWith("set") || n.startsWith("add");
+	}
+
+	/** Get the name of the validator class of a type. The names of
+	 *  enclosing types are prepended for nested types.
+	 * 
+	 * @param t  the type
+	 * @return the simple name of the validator class
+	 */
+	private static String className(TypeElement t) {
+		String n = t.getSimpleName().toString();
+		for (Element e = t.getEnclosingElement(); e.getKind() != ElementKind.PACKAGE;
+				e = e.getEnclosingElement())
+			n = e.getSimpleName() + "_" + n;
+		return n + SUFFIX;
+	}
+
+	/** Get the source code of a <code>float</code> constant.
+	 * 
+	 * @param f  the value
+	 * @return Java literal of the value
+	 */
+	private static String literal(float f) {
+		if (f == Float.MAX_VALUE)
+			return "Float.MAX_VALUE";
+		if (f == Float.MIN_VALUE)
+			return "Float.MIN_VALUE";
+		return Float.toString(f) + "F";
+	}
+
+	/** Check if a type is a given class.
+	 * 
+	 * @param t  the type
+	 * @param c  qualified name of the class
+	 * @return <code>true</code> iff the type is the class
+	 */
+	private static boolean isType(TypeMirror t, String c) {
+		return t.getKind() == TypeKind.DECLARED &&
+			((TypeElement)((DeclaredType)t).asElement()).getQualifiedName().contentEquals(c);
+	}
+
+	/** Check if a type can be assigned to a given class or interface.
+	 * 
+	 * @param t  the type
+	 * @param c  qualified name of the class or interface
+	 * @return <code>true</code> iff the type is a subtype of the class
+	 */
+	private boolean isAssignable(TypeMirror t, String c) {
+		TypeElement e = processingEnv.getElementUtils().getTypeElement(c);
+		return e != null && processingEnv.getTypeUtils().isAssignable(
+				processingEnv.getTypeUtils().erasure(t),
+				processingEnv.getTypeUtils().erasure(e.asType()));
+	}
+
+	/** Get the parameter type of a validator. Type arguments are
+	 *  replaced by wildcards, because the validators are static and
+	 *  raw types would cause warnings.
+	 * 
+	 * @param t  type of the parameter of the annotated method
+	 * @return the parameter type, e.g. <code>java.util.Collection&lt;?&gt;</code>
+	 */
+	private String parameterType(TypeMirror t) {
+		String raw = processingEnv.getTypeUtils().erasure(t).toString();
+		if (t.getKind() != TypeKind.DECLARED)
+			return raw;
+		int n = ((DeclaredType)t).getTypeArguments().size();
+		if (n == 0)
+			return raw;
+		StringBuilder b = new StringBuilder(raw).append('<');
+		for (int i=0; i<n; i++)
+			b.append(i == 0 ? "?" : ", ?");
+		return b.append('>').toString();
+	}
+
+	/** Check if a type has a public method <code>int length()</code>.
+	 * 
+	 * @param t  the type
+	 * @return <code>true</code> iff the length can be determined
+	 */
+	private boolean hasLength(TypeMirror t) {
+		if (t.getKind() != TypeKind.DECLARED)
+			return false;
+		TypeElement e = (TypeElement)((DeclaredType)t).asElement();
+		for (ExecutableElement m : ElementFilter.methodsIn(
+				processingEnv.getElementUtils().getAllMembers(e)))
+			if (m.getSimpleName().contentEquals("length") && m.getParameters().isEmpty()
+					&& m.getReturnType().getKind() == TypeKind.INT)
+				return true;
+		return false;
+	}
+
+	/** Report an invalid use of a constraint annotation.
+	 * 
+	 * @param msg  error message
+	 * @param e  the annotated method
+	 */
+	private void error(String msg, Element e) {
+		processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, msg, e);
+	}
+
+}
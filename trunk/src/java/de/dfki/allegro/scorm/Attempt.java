@@ -82,7 +82,8 @@ public class Attempt implements ScormCommunicationElement {
 	 *  session). The attempt embracing the learner session is still
 	 *  active. This method should be used if the student wishes to
 	 *  continue the attempt later. The entry status is set
-	 *  to "resume".
+	 *  to "resume". If a commit scheduler is attached to the
+	 *  login session, the data is committed immediately.
 	 * 
 	 *  This method sets the status of the attempt and have to
 	 *  explicitly call the method <code>terminateCommunicationSession()</code>
@@ -92,6 +93,7 @@ public class Attempt implements ScormCommunicationElement {
 	 */
 	public void suspend() {
 		ScormAdapter.adapter.setScormCharValue("cmi.exit", "suspend");
+		ScormAdapter.getLoginSessionInstance().flushCommits(true);
 	}
 
 	/** Logout is marked deprecated in the actual SCORM version.
@@ -21,6 +21,7 @@ import java.util.Locale;
 import de.dfki.allegro.scorm.annotation.ScormRealRange;
 import de.dfki.allegro.scorm.token.LMSCapability;
 import de.dfki.allegro.scorm.token.ThreeStatesChangeValue;
+import de.dfki.allegro.scorm.token.TokenCodecs;
 
 /** The learner preferences. Changing the preferences has
  *  only an effect during the actual attempt. After this
@@ -40,7 +41,7 @@ public class AttemptLearnerPreferences implements ScormCommunicationElement {
 	 */
 	AttemptLearnerPreferences() {
 		audioCaptioningChange = new TokenSelection<ThreeStatesChangeValue>(
-				ThreeStatesChangeValue.class,
+				TokenCodecs.THREE_STATES_CHANGE_VALUE,
 				"cmi.learner_preference.audio_captioning");
 	}
 	
@@ -67,6 +68,7 @@ public class AttemptLearnerPreferences implements ScormCommunicationElement {
 	 */
 	@ScormRealRange(minValue=0F)
 	public void setAudioChangeLevel(Float f) {
+		AttemptLearnerPreferencesConstraints.setAudioChangeLevel(f);
 		ScormAdapter.adapter.setScormCharValue(
 				"cmi.learner_preference.audio_level", f.toString());
 	}
@@ -116,6 +118,7 @@ public class AttemptLearnerPreferences implements ScormCommunicationElement {
 	 */
 	@ScormRealRange(minValue=0F)
 	public void setDeliverySpeedChange(Float f) {
+		AttemptLearnerPreferencesConstraints.setDeliverySpeedChange(f);
 		ScormAdapter.adapter.setScormCharValue(
 				"cmi.learner_preference.delivery_speed", f.toString());
 	}
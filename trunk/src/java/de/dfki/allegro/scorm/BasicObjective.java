@@ -19,6 +19,7 @@ package de.dfki.allegro.scorm;
 import de.dfki.allegro.scorm.annotation.ScormRealRange;
 import de.dfki.allegro.scorm.token.CompletionStatus;
 import de.dfki.allegro.scorm.token.SuccessStatus;
+import de.dfki.allegro.scorm.token.TokenCodecs;
 
 
 /** An objective encapsulates tracking data which is used by
@@ -29,11 +30,11 @@ import de.dfki.allegro.scorm.token.SuccessStatus;
  */
 public abstract class BasicObjective extends ObjectiveId {
 	
-	/** The score.*/
+	/** The score, created on first use.*/
 	private Score score;
-	/** The success status.*/
+	/** The success status, created on first use.*/
 	private TokenSelection<SuccessStatus> successStatus;
-	/** The completion status.*/
+	/** The completion status, created on first use.*/
 	private TokenSelection<CompletionStatus> completionStatus;
 
 	
@@ -43,11 +44,6 @@ public abstract class BasicObjective extends ObjectiveId {
 	 */
 	BasicObjective(String k) {
 		super(k);
-		score = new Score(key + "score");
-		successStatus = new TokenSelection<SuccessStatus>(
-				SuccessStatus.class, key + "success_status");
-		completionStatus = new TokenSelection<CompletionStatus>(
-				CompletionStatus.class, key + "completion_status");
 	}
 
 	/** Ctor used for creating a new objective. The objective
@@ -65,7 +61,9 @@ public abstract class BasicObjective extends ObjectiveId {
 	 * 
 	 * @return the score of this objective
 	 */
-	public Score getScore() {
+	public synchronized Score getScore() {
+		if (score == null)
+			score = new Score(key("score"));
 		return score;
 	}
 
@@ -74,7 +72,7 @@ public abstract class BasicObjective extends ObjectiveId {
 	 * @param s  the success status
 	 */
 	public void setSuccessStatus(SuccessStatus s) {
-		successStatus.setToken(s);
+		successStatus().setToken(s);
 	}
 
 	/** Get the success status of the objective.
@@ -82,7 +80,7 @@ public abstract class BasicObjective extends ObjectiveId {
 	 * @return the success status of the objective.
 	 */
 	public SuccessStatus getSuccessStatus() {
-		return successStatus.getToken();
+		return successStatus().getToken();
 	}
 
 	/** Set the completion status of the objective.
@@ -90,7 +88,7 @@ public abstract class BasicObjective extends ObjectiveId {
 	 * @param s  the completion status
 	 */
 	public void setCompletionStatus(CompletionStatus s) {
-		completionStatus.setToken(s);
+		completionStatus().setToken(s);
 	}
 
 	/** Get the completion status of the objective.
@@ -98,7 +96,7 @@ public abstract class BasicObjective extends ObjectiveId {
 	 * @return the completion status of the objective.
 	 */
 	public CompletionStatus getCompletionStatus() {
-		return completionStatus.getToken();
+		return completionStatus().getToken();
 	}
 
 	/** Set the progress measure. The value has to be in
@@ -108,8 +106,9 @@ public abstract class BasicObjective extends ObjectiveId {
 	 */
 	@ScormRealRange(minValue=0F,maxValue=1F)
 	public void setProgressMeasure(Float p) {
+		BasicObjectiveConstraints.setProgressMeasure(p);
 		ScormAdapter.adapter.setScormCharValue(
-				key + "progress_measure", p.toString());
+				key("progress_measure"), p.toString());
 	}
 
 	/** Get the progress measure. The value is defined
@@ -120,7 +119,29 @@ public abstract class BasicObjective extends ObjectiveId {
 	 *                                       accessed before it has been set
 	 */
 	public float getProgressMeasure() throws ScormEmptyAttributeException {
-		return ScormAdapter.adapter.getScormFloat(key + "progress_measure");
+		return ScormAdapter.adapter.getScormFloat(key("progress_measure"));
+	}
+
+	/** Get the success status selection.
+	 * 
+	 * @return the success status selection
+	 */
+	private synchronized TokenSelection<SuccessStatus> successStatus() {
+		if (successStatus == null)
+			successStatus = new TokenSelection<SuccessStatus>(
+					TokenCodecs.SUCCESS_STATUS, key("success_status"));
+		return successStatus;
+	}
+
+	/** Get the completion status selection.
+	 * 
+	 * @return the completion status selection
+	 */
+	private synchronized TokenSelection<CompletionStatus> completionStatus() {
+		if (completionStatus == null)
+			completionStatus = new TokenSelection<CompletionStatus>(
+					TokenCodecs.COMPLETION_STATUS, key("completion_status"));
+		return completionStatus;
 	}
 
 }
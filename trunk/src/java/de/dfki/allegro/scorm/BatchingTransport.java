@@ -0,0 +1,232 @@
+/** Copyright 2010 Timo Scheuer
+ * 
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.dfki.allegro.scorm;
+
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+
+/** Transport that queues the writes and sends them to another
+ *  transport with a single <code>setValues</code> call. The queue is
+ *  flushed before any other call, so reads and session functions see
+ *  all previous writes in the original order.
+ *
+ *  Because a write is only sent later, <code>setValue</code> always
+ *  reports success. If the LMS rejects a queued write then the flush
+ *  throws a <code>ScormDataAccessException</code> carrying the error
+ *  of the rejected write. Only the rejected write is dropped, the
+ *  writes queued behind it stay in the queue and are sent with the
+ *  next flush. If the connection fails then all writes are kept.
+ *
+ * @author Timo Scheuer
+ *
+ */
+public class BatchingTransport implements ScormTransport {
+
+	/** Default maximum number of queued writes.*/
+	public static final int DEFAULT_BATCH_SIZE = 64;
+
+	/** The transport which actually talks to the LMS.*/
+	protected final ScormTransport delegate;
+	/** Maximum number of queued writes. When reached, the queue
+	 *  is flushed.
+	 */
+	private final int batchSize;
+
+	/** Keys of the queued writes.*/
+	private final List<String> keys;
+	/** Values of the queued writes.*/
+	private final List<String> values;
+
+
+	/** Ctor.
+	 * 
+	 * @param t  the transport which actually talks to the LMS
+	 */
+	public BatchingTransport(ScormTransport t) {
+		this(t, DEFAULT_BATCH_SIZE);
+	}
+
+	/** Ctor.
+	 * 
+	 * @param t  the transport which actually talks to the LMS
+	 * @param batchSize  maximum number of queued writes
+	 */
+	public BatchingTransport(ScormTransport t, int batchSize) {
+		if (batchSize < 1)
+			throw new IllegalArgumentException("Batch size must be positive!");
+		delegate = t;
+		this.batchSize = batchSize;
+		keys = new ArrayList<String>(batchSize);
+		values = new ArrayList<String>(batchSize);
+	}
+
+	/** Send all queued writes to the LMS.
+	 * 
+	 * @throws ScormDataAccessException the LMS rejected a write
+	 */
+	public synchronized void flush() throws ScormDataAccessException {
+		if (keys.isEmpty())
+			return;
+		int failed = delegate.setValues(keys, values);
+		if (failed < 0) {
+			keys.clear();
+			values.clear();
+			return;
+		}
+		// drop the sent writes and the rejected one, keep the rest
+		keys.subList(0, failed + 1).clear();
+		values.subList(0, failed + 1).clear();
+		throw new ScormDataAccessException(delegate, null);
+	}
+
+	/** Get the number of queued writes.
+	 * 
+	 * @return number of writes not yet sent to the LMS
+	 */
+	public synchronized int getPendingCount() {
+		return keys.size();
+	}
+
+	/** Begin the communication session.
+	 * 
+	 * @return <code>true</code> iff the LMS reports success
+	 * @throws ScormDataAccessException the connection to the LMS failed
+	 */
+	public synchronized boolean initialize() throws ScormDataAccessException {
+		flush();
+		return delegate.initialize();
+	}
+
+	/** Send all queued writes and end the communication session.
+	 * 
+	 * @return <code>true</code> iff the LMS reports success
+	 * @throws ScormDataAccessException the connection to the LMS failed
+	 */
+	public synchronized boolean terminate() throws ScormDataAccessException {
+		flush();
+		return delegate.terminate();
+	}
+
+	/** Send all queued writes and persist them.
+	 * 
+	 * @return <code>true</code> iff the LMS reports success
+	 * @throws ScormDataAccessException the connection to the LMS failed
+	 */
+	public synchronized boolean commit() throws ScormDataAccessException {
+		flush();
+		return delegate.commit();
+	}
+
+	/** Send all queued writes and read a value of the data model.
+	 * 
+	 * @param key  data model element
+	 * @return the value
+	 * @throws ScormDataAccessException the connection to the LMS failed
+	 */
+	public synchronized String getValue(String key) throws ScormDataAccessException {
+		flush();
+		return delegate.getValue(key);
+	}
+
+	/** Send all queued writes and read a sequence of values.
+	 * 
+	 * @param keys  data model elements
+	 * @return the values in the order of the keys
+	 * @throws ScormDataAccessException the connection to the LMS failed
+	 */
+	public synchronized List<String> getValues(List<String> keys) throws ScormDataAccessException {
+		flush();
+		return delegate.getValues(keys);
+	}
+
+	/** Send all queued writes and read all values described by a
+	 *  list of key templates.
+	 * 
+	 * @param templates  key templates
+	 * @return all read values by key
+	 * @throws ScormDataAccessException the connection to the LMS failed
+	 */
+	public synchronized Map<String, String> getValueTree(List<String> templates) throws ScormDataAccessException {
+		flush();
+		return delegate.getValueTree(templates);
+	}
+
+	/** Queue a write.
+	 * 
+	 * @param key  data model element
+	 * @param value  the new value
+	 * @return always <code>true</code>
+	 * @throws ScormDataAccessException the queue was full and a
+	 *          queued write has been rejected
+	 */
+	public synchronized boolean setValue(String key, String value) throws ScormDataAccessException {
+		keys.add(key);
+		this.values.add(value);
+		if (keys.size() >= batchSize)
+			flush();
+		return true;
+	}
+
+	/** Queue a sequence of writes.
+	 * 
+	 * @param keys  data model elements
+	 * @param values  the new values (same order as the keys)
+	 * @return always <code>-1</code>
+	 * @throws ScormDataAccessException the queue was full and a
+	 *          queued write has been rejected
+	 */
+	public synchronized int setValues(List<String> keys, List<String> values) throws ScormDataAccessException {
+		for (int i=0, n=keys.size(); i<n; i++)
+			setValue(keys.get(i), values.get(i));
+		return -1;
+	}
+
+	/** Send all queued writes and get the error code of the last call.
+	 *  Because of the flush the error code of a rejected write would be
+	 *  lost, hence a rejected write causes an exception.
+	 * 
+	 * @return SCORM error code
+	 * @throws ScormDataAccessException the connection to the LMS failed
+	 */
+	public synchronized String getLastError() throws ScormDataAccessException {
+		flush();
+		return delegate.getLastError();
+	}
+
+	/** Get the textual description of an error code.
+	 * 
+	 * @param code  SCORM error code
+	 * @return error description
+	 * @throws ScormDataAccessException the connection to the LMS failed
+	 */
+	public synchronized String getErrorString(String code) throws ScormDataAccessException {
+		return delegate.getErrorString(code);
+	}
+
+	/** Get LMS specific details of an error code.
+	 * 
+	 * @param code  SCORM error code
+	 * @return LMS specific error details
+	 * @throws ScormDataAccessException the connection to the LMS failed
+	 */
+	public synchronized String getDiagnostic(String code) throws ScormDataAccessException {
+		return delegate.getDiagnostic(code);
+	}
+
+}
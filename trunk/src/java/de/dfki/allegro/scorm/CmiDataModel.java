@@ -0,0 +1,244 @@
+/** Copyright 2010 Timo Scheuer
+ * 
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.dfki.allegro.scorm;
+
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.dfki.allegro.scorm.util.Tokenizer;
+
+
+/** Knowledge about the elements of the SCORM 2004 run-time data
+ *  model that is needed to handle the values locally, e.g. which
+ *  values may be cached during a communication session.
+ * 
+ * @author Timo Scheuer
+ *
+ */
+final class CmiDataModel {
+
+	/** How a value of the data model may be cached.*/
+	enum CachePolicy {
+		/** The value does not change during a communication session.*/
+		IMMUTABLE,
+		/** The value only changes by a <code>SetValue</code> of the SCO.*/
+		READ_WRITE,
+		/** The number of elements of a collection (<code>_count</code>).*/
+		COUNT,
+		/** The value can not be read, hence it is never cached.*/
+		WRITE_ONLY
+	}
+
+	/** Elements that do not use the default policy. The collection
+	 *  indices of the keys are replaced by <code>n</code>.
+	 */
+	private static final Map<String, CachePolicy> POLICIES = new HashMap<String, CachePolicy>();
+
+	static {
+		String[] immutable = {
+				"cmi._version", "cmi.completion_threshold", "cmi.credit",
+				"cmi.entry", "cmi.launch_data", "cmi.learner_id",
+				"cmi.learner_name", "cmi.max_time_allowed", "cmi.mode",
+				"cmi.scaled_passing_score", "cmi.time_limit_action",
+				"cmi.total_time", "cmi.comments_from_lms.n.comment",
+				"cmi.comments_from_lms.n.location",
+				"cmi.comments_from_lms.n.timestamp", "adl.data.n.id"};
+		for (String k : immutable)
+			POLICIES.put(k, CachePolicy.IMMUTABLE);
+		POLICIES.put("cmi.exit", CachePolicy.WRITE_ONLY);
+		POLICIES.put("cmi.session_time", CachePolicy.WRITE_ONLY);
+	}
+
+
+	/** Templates of all readable elements of the data model that are
+	 *  used by this library.
+	 *  
+	 * @see de.dfki.allegro.scorm.ScormTransport#getValueTree(List)
+	 */
+	static final List<String> SNAPSHOT_TEMPLATES = Collections.unmodifiableList(Arrays.asList(
+			"cmi._version", "cmi.completion_status", "cmi.completion_threshold",
+			"cmi.credit", "cmi.entry", "cmi.launch_data", "cmi.learner_id",
+			"cmi.learner_name", "cmi.learner_preference.audio_level",
+			"cmi.learner_preference.language",
+			"cmi.learner_preference.delivery_speed",
+			"cmi.learner_preference.audio_captioning", "cmi.location",
+			"cmi.max_time_allowed", "cmi.mode", "cmi.progress_measure",
+			"cmi.scaled_passing_score", "cmi.score.scaled", "cmi.score.raw",
+			"cmi.score.min", "cmi.score.max", "cmi.success_status",
+			"cmi.suspend_data", "cmi.time_limit_action", "cmi.total_time",
+			"cmi.comments_from_learner.n.comment",
+			"cmi.comments_from_learner.n.location",
+			"cmi.comments_from_learner.n.timestamp",
+			"cmi.comments_from_lms.n.comment",
+			"cmi.comments_from_lms.n.location",
+			"cmi.comments_from_lms.n.timestamp",
+			"cmi.objectives.n.id", "cmi.objectives.n.score.scaled",
+			"cmi.objectives.n.score.raw", "cmi.objectives.n.score.min",
+			"cmi.objectives.n.score.max", "cmi.objectives.n.success_status",
+			"cmi.objectives.n.completion_status",
+			"cmi.objectives.n.progress_measure",
+			"cmi.objectives.n.description",
+			"cmi.interactions.n.id", "cmi.interactions.n.type",
+			"cmi.interactions.n.timestamp", "cmi.interactions.n.weighting",
+			"cmi.interactions.n.learner_response", "cmi.interactions.n.result",
+			"cmi.interactions.n.latency", "cmi.interactions.n.description",
+			"cmi.interactions.n.objectives.n.id",
+			"cmi.interactions.n.correct_responses.n.pattern",
+			"adl.data.n.id"));
+
+
+	/** Ctor.
+	 * 
+	 */
+	private CmiDataModel() {
+	}
+
+	/** Read all values described by a list of key templates with
+	 *  single reads. This is the implementation of
+	 *  <code>ScormTransport.getValueTree</code> for transports which
+	 *  cannot read several values at once.
+	 * 
+	 * @param t  the transport used for reading
+	 * @param templates  key templates
+	 * @return all read values by key, including the <code>_count</code>
+	 *          values of the visited collections
+	 * @throws ScormDataAccessException the connection to the LMS failed
+	 */
+	static Map<String, String> readTree(ScormTransport t, List<String> templates)
+			throws ScormDataAccessException {
+		Map<String, String> m = new LinkedHashMap<String, String>();
+		for (String template : templates)
+			readTree(t, "", Tokenizer.split(template, ".n."), 0, m);
+		return m;
+	}
+
+	/** Expand a part of a key template.
+	 * 
+	 * @param t  the transport used for reading
+	 * @param prefix  the already expanded part of the key
+	 * @param parts  the template split at the collection indices
+	 * @param i  the part to expand
+	 * @param m  map which receives the values
+	 * @throws ScormDataAccessException the connection to the LMS failed
+	 */
+	private static void readTree(ScormTransport t, String prefix, String[] parts,
+			int i, Map<String, String> m) throws ScormDataAccessException {
+		String k = prefix + parts[i];
+		if (i == parts.length - 1) {
+			m.put(k, t.getValue(k));
+			return;
+		}
+		String countKey = k + "._count";
+		String count = m.get(countKey);
+		if (count == null) {
+			count = t.getValue(countKey);
+			m.put(countKey, count);
+		}
+		int n;
+		try {
+			n = Integer.parseInt(count);
+		} catch (NumberFormatException e) {
+			n = 0;
+		}
+		for (int j=0; j<n; j++)
+			readTree(t, k + "." + j + ".", parts, i + 1, m);
+	}
+
+	/** Get the cache policy of an element.
+	 * 
+	 * @param key  data model element
+	 * @return cache policy
+	 */
+	static CachePolicy getCachePolicy(String key) {
+		if (key.endsWith("._count"))
+			return CachePolicy.COUNT;
+		if (key.endsWith("._children"))
+			return CachePolicy.IMMUTABLE;
+		CachePolicy p = POLICIES.get(normalize(key));
+		return p == null ? CachePolicy.READ_WRITE : p;
+	}
+
+	/** Replace all collection indices of a key by <code>n</code>,
+	 *  e.g. <code>cmi.interactions.3.id</code> becomes
+	 *  <code>cmi.interactions.n.id</code>.
+	 * 
+	 * @param key  data model element
+	 * @return normalized key
+	 */
+	static String normalize(String key) {
+		if (indexOf(key, 0) < 0)
+			return key;
+		StringBuilder b = new StringBuilder(key.length());
+		int start = 0;
+		int dot;
+		do {
+			dot = key.indexOf('.', start);
+			int end = dot < 0 ? key.length() : dot;
+			if (start > 0)
+				b.append('.');
+			if (parseIndex(key, start, end) >= 0)
+				b.append('n');
+			else
+				b.append(key, start, end);
+			start = end + 1;
+		} while (dot >= 0);
+		return b.toString();
+	}
+
+	/** Find the next collection index of a key.
+	 * 
+	 * @param key  data model element
+	 * @param from  position to start the search at
+	 * @return position of the dot in front of the index or
+	 *          <code>-1</code> if there is no further index
+	 */
+	static int indexOf(String key, int from) {
+		int dot = key.indexOf('.', from);
+		while (dot >= 0) {
+			int end = key.indexOf('.', dot + 1);
+			if (parseIndex(key, dot + 1, end < 0 ? key.length() : end) >= 0)
+				return dot;
+			dot = end;
+		}
+		return -1;
+	}
+
+	/** Parse a collection index.
+	 * 
+	 * @param s  the key
+	 * @param begin  first character of the key segment
+	 * @param end  end of the key segment (exclusive)
+	 * @return the index or <code>-1</code> if the segment is no index
+	 */
+	static int parseIndex(String s, int begin, int end) {
+		if (begin >= end || end - begin > 9)
+			return -1;
+		int r = 0;
+		for (int i=begin; i<end; i++) {
+			char c = s.charAt(i);
+			if (c < '0' || c > '9')
+				return -1;
+			r = r * 10 + (c - '0');
+		}
+		return r;
+	}
+
+}
@@ -0,0 +1,213 @@
+/** Copyright 2010 Timo Scheuer
+ * 
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.dfki.allegro.scorm;
+
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import de.dfki.allegro.scorm.util.Trace;
+import de.dfki.allegro.scorm.util.Trace.Level;
+
+
+/** Merges commit requests to reduce the load of the LMS. A request
+ *  does not commit immediately but schedules a commit after a merge
+ *  window; all requests within the window share this commit. In
+ *  addition the time between two commits never falls below a minimum
+ *  interval, which limits the commit rate.
+ *  
+ *  The scheduler is attached to the <code>LoginSession</code>. A
+ *  pending commit is executed immediately when the communication
+ *  session is terminated or the attempt is suspended, so no data is
+ *  lost.
+ *  
+ * @author Timo Scheuer
+ *
+ * @see de.dfki.allegro.scorm.LoginSession#setCommitScheduler(CommitScheduler)
+ */
+public class CommitScheduler {
+
+	/** Time (in milliseconds) to wait for further requests.*/
+	private final long window;
+	/** Minimum time (in milliseconds) between two commits.*/
+	private final long minInterval;
+
+	/** Serializes the commits of the scheduler thread and of
+	 *  <code>flush()</code>.
+	 */
+	private final Object commitLock = new Object();
+	/** Executes the scheduled commits.*/
+	private ScheduledExecutorService executor;
+	/** The scheduled commit or <code>null</code> if no commit is pending.*/
+	private ScheduledFuture<?> scheduled;
+	/** Time of the last commit (in milliseconds).*/
+	private long lastCommit;
+	/** Number of commit requests.*/
+	private int requests = 0;
+	/** Number of commits sent to the LMS.*/
+	private int commits = 0;
+	/** Failure of the last scheduled commit.*/
+	private ScormDataAccessException lastFailure;
+
+
+	/** Ctor.
+	 * 
+	 * @param window  time (in milliseconds) to wait for further
+	 *                 requests before committing
+	 * @param minInterval  minimum time (in milliseconds) between two
+	 *                      commits
+	 */
+	public CommitScheduler(long window, long minInterval) {
+		if (window < 0 || minInterval < 0)
+			throw new IllegalArgumentException("Times must not be negative!");
+		this.window = window;
+		this.minInterval = minInterval;
+		lastCommit = now() - minInterval;
+	}
+
+	/** Request a commit. The commit is executed later by a background
+	 *  thread, together with all other requests until then.
+	 * 
+	 */
+	public synchronized void requestCommit() {
+		requests++;
+		if (scheduled != null)
+			return;
+		long now = now();
+		long delay = Math.max(window, lastCommit + minInterval - now);
+		if (executor == null)
+			executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+				public Thread newThread(Runnable r) {
+					Thread t = new Thread(r, "SCORM commit scheduler");
+					t.setDaemon(true);
+					return t;
+				}
+			});
+		scheduled = executor.schedule(new Runnable() {
+			public void run() {
+				runScheduled();
+			}
+		}, delay, TimeUnit.MILLISECONDS);
+	}
+
+	/** Execute a pending commit immediately and wait for a commit that
+	 *  is currently running.
+	 * 
+	 * @throws ScormDataAccessException the commit failed
+	 */
+	public void flush() throws ScormDataAccessException {
+		synchronized (commitLock) {
+			synchronized (this) {
+				if (scheduled == null)
+					return;
+				scheduled.cancel(false);
+				scheduled = null;
+			}
+			commit();
+		}
+	}
+
+	/** Get the number of commit requests.
+	 * 
+	 * @return number of requests
+	 */
+	public synchronized int getRequestCount() {
+		return requests;
+	}
+
+	/** Get the number of commits sent to the LMS.
+	 * 
+	 * @return number of commits
+	 */
+	public synchronized int getCommitCount() {
+		return commits;
+	}
+
+	/** Get the number of commits saved by merging requests. Requests
+	 *  which are still pending are not counted.
+	 * 
+	 * @return number of saved commits
+	 */
+	public synchronized int getSavedCommitCount() {
+		return requests - commits - (scheduled != null ? 1 : 0);
+	}
+
+	/** Get the failure of the last commit executed in the background.
+	 * 
+	 * @return the failure or <code>null</code> if the last commit
+	 *          succeeded
+	 */
+	public synchronized ScormDataAccessException getLastFailure() {
+		return lastFailure;
+	}
+
+	/** Execute the scheduled commit.
+	 * 
+	 */
+	private void runScheduled() {
+		synchronized (commitLock) {
+			synchronized (this) {
+				// flush() may have committed already
+				if (scheduled == null)
+					return;
+				scheduled = null;
+			}
+			try {
+				commit();
+			} catch (ScormDataAccessException e) {
+				// the message is retrieved from the LMS, so only if needed
+				if (Trace.isEnabled(Level.ERROR))
+					Trace.log(Level.ERROR, "Commit", null,
+							"scheduled commit failed: " + e.getMessage());
+			}
+		}
+	}
+
+	/** Commit and update the statistics.
+	 * 
+	 * @throws ScormDataAccessException the commit failed
+	 */
+	private void commit() throws ScormDataAccessException {
+		try {
+			ScormAdapter.adapter.commit();
+			synchronized (this) {
+				lastFailure = null;
+			}
+		} catch (ScormDataAccessException e) {
+			synchronized (this) {
+				lastFailure = e;
+			}
+			throw e;
+		} finally {
+			synchronized (this) {
+				commits++;
+				lastCommit = now();
+			}
+		}
+	}
+
+	/** Get the actual time.
+	 * 
+	 * @return monotonic time in milliseconds
+	 */
+	private static long now() {
+		return System.nanoTime() / 1000000L;
+	}
+
+}
@@ -0,0 +1,88 @@
+/** Copyright 2010 Timo Scheuer
+ * 
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.dfki.allegro.scorm;
+
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/** Registry of the element objects of a SCORM collection with one
+ *  object per index. The element objects only hold their access keys,
+ *  so they can be shared. The registry is emptied when a new
+ *  communication session begins.
+ *
+ * @author Timo Scheuer
+ *
+ * @param <E>  element type
+ */
+abstract class ElementHandles<E> {
+
+	/** Element objects by index.*/
+	private final List<E> handles = new ArrayList<E>();
+	/** Session the element objects belong to.*/
+	private int session = -1;
+
+
+	/** Get the element object of an index. The object is created on
+	 *  first use.
+	 * 
+	 * @param i  index of the element
+	 * @return the element object
+	 */
+	synchronized E get(int i) {
+		E e = lookup(i);
+		if (e == null) {
+			e = create(i);
+			handles.set(i, e);
+		}
+		return e;
+	}
+
+	/** Register a newly created element object.
+	 * 
+	 * @param i  index of the element
+	 * @param e  the element object
+	 */
+	synchronized void put(int i, E e) {
+		lookup(i);
+		handles.set(i, e);
+	}
+
+	/** Create the element object of an index.
+	 * 
+	 * @param i  index of the element
+	 * @return the element object
+	 */
+	protected abstract E create(int i);
+
+	/** Get the registered element object of an index.
+	 * 
+	 * @param i  index of the element
+	 * @return the element object or <code>null</code>
+	 */
+	private E lookup(int i) {
+		int s = ScormAdapter.adapter.cache.getSession();
+		if (s != session) {
+			handles.clear();
+			session = s;
+		}
+		while (handles.size() <= i)
+			handles.add(null);
+		return handles.get(i);
+	}
+
+}
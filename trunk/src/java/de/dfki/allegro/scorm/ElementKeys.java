@@ -0,0 +1,137 @@
+/** Copyright 2010 Timo Scheuer
+ * 
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.dfki.allegro.scorm;
+
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+
+/** Precomputed SCORM access keys below a common prefix, e.g. the keys
+ *  of all elements of <code>cmi.interactions.3.</code> or the keys of
+ *  the entries of <code>cmi.interactions.</code>. Every key is built
+ *  and interned once, so the accessors do not concatenate strings on
+ *  each call. There is one instance per prefix.
+ *
+ *  The number of prefixes is bounded by the size of the data model,
+ *  hence the instances are kept for the lifetime of the VM.
+ *
+ * @author Timo Scheuer
+ *
+ */
+final class ElementKeys {
+
+	/** All instances by prefix.*/
+	private static final ConcurrentMap<String, ElementKeys> REGISTRY =
+		new ConcurrentHashMap<String, ElementKeys>();
+
+	/** The common prefix.*/
+	private final String prefix;
+	/** Keys by child name.*/
+	private final ConcurrentMap<String, String> children =
+		new ConcurrentHashMap<String, String>();
+	/** Keys of the collection entries by index.*/
+	private volatile String[] indices = new String[0];
+	/** Keys below the collection entries by index.*/
+	private volatile ElementKeys[] entries = new ElementKeys[0];
+
+
+	/** Ctor.
+	 * 
+	 * @param p  the common prefix
+	 */
+	private ElementKeys(String p) {
+		prefix = p;
+	}
+
+	/** Get the keys below a prefix.
+	 * 
+	 * @param p  the common prefix, usually ending with a dot
+	 * @return the keys
+	 */
+	static ElementKeys of(String p) {
+		ElementKeys k = REGISTRY.get(p);
+		if (k == null) {
+			k = new ElementKeys(p.intern());
+			ElementKeys old = REGISTRY.putIfAbsent(k.prefix, k);
+			if (old != null)
+				k = old;
+		}
+		return k;
+	}
+
+	/** Get the key of a child element, e.g. <code>id</code>.
+	 * 
+	 * @param child  name of the child element
+	 * @return the prefix followed by the child name
+	 */
+	String get(String child) {
+		String k = children.get(child);
+		if (k == null) {
+			k = (prefix + child).intern();
+			children.putIfAbsent(child, k);
+		}
+		return k;
+	}
+
+	/** Get the key of a collection entry.
+	 * 
+	 * @param i  index of the entry
+	 * @return the prefix followed by the index
+	 */
+	String index(int i) {
+		String[] a = indices;
+		if (i < a.length && a[i] != null)
+			return a[i];
+		synchronized (this) {
+			a = indices;
+			if (i >= a.length) {
+				String[] b = new String[Math.max(i + 1, 2 * a.length)];
+				System.arraycopy(a, 0, b, 0, a.length);
+				a = b;
+			}
+			if (a[i] == null)
+				a[i] = (prefix + i).intern();
+			indices = a;
+			return a[i];
+		}
+	}
+
+	/** Get the keys of the elements of a collection entry, e.g. the
+	 *  keys below <code>adl.data.3.</code>.
+	 * 
+	 * @param i  index of the entry
+	 * @return the keys below the key of the entry
+	 */
+	ElementKeys entry(int i) {
+		ElementKeys[] a = entries;
+		if (i < a.length && a[i] != null)
+			return a[i];
+		synchronized (this) {
+			a = entries;
+			if (i >= a.length) {
+				ElementKeys[] b = new ElementKeys[Math.max(i + 1, 2 * a.length)];
+				System.arraycopy(a, 0, b, 0, a.length);
+				a = b;
+			}
+			if (a[i] == null)
+				a[i] = of(index(i) + ".");
+			entries = a;
+			return a[i];
+		}
+	}
+
+}
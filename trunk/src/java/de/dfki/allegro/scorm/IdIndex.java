@@ -0,0 +1,147 @@
+/** Copyright 2010 Timo Scheuer
+ * 
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.dfki.allegro.scorm;
+
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/** Index from the ids of a SCORM collection (e.g.
+ *  <code>cmi.interactions</code>) to the positions of the elements.
+ *  Optionally one further value per element is kept, e.g. the
+ *  interaction type. The index is read with a single bulk read on
+ *  first use and is kept up to date by <code>add()</code>, so looking
+ *  up an element by id does not call the LMS at all.
+ *
+ *  The index belongs to one communication session. A new session
+ *  (detected by the session number of the <code>SessionCache</code>)
+ *  causes the index to be read again.
+ *
+ * @author Timo Scheuer
+ *
+ */
+final class IdIndex {
+
+	/** SCORM access key of the collection without trailing dot.*/
+	private final String collection;
+	/** Name of the further value per element or <code>null</code>.*/
+	private final String attribute;
+
+	/** Position by id.*/
+	private final Map<String, Integer> positions = new HashMap<String, Integer>();
+	/** Further value by position.*/
+	private final List<String> attributes = new ArrayList<String>();
+	/** Session the index has been read in or <code>-1</code>.*/
+	private int session = -1;
+
+
+	/** Ctor.
+	 * 
+	 * @param c  SCORM access key of the collection, e.g.
+	 *            <code>cmi.interactions</code>
+	 * @param a  name of a further value to keep per element or
+	 *            <code>null</code>
+	 */
+	IdIndex(String c, String a) {
+		collection = c;
+		attribute = a;
+	}
+
+	/** Get the position of an element.
+	 * 
+	 * @param id  id of the element
+	 * @return the position or <code>-1</code> if there is no element
+	 *          with this id
+	 * @throws ScormDataAccessException an error is reported by a SCORM function
+	 */
+	synchronized int indexOf(Object id) throws ScormDataAccessException {
+		update();
+		Integer i = positions.get(id);
+		return i == null ? -1 : i.intValue();
+	}
+
+	/** Get the further value of an element.
+	 * 
+	 * @param i  position of the element
+	 * @return the value as read or added
+	 * @throws ScormDataAccessException an error is reported by a SCORM function
+	 */
+	synchronized String getAttribute(int i) throws ScormDataAccessException {
+		update();
+		return attributes.get(i);
+	}
+
+	/** Record a new element. If the index has not been read yet then
+	 *  nothing is recorded, because the element will be read with all
+	 *  others.
+	 * 
+	 * @param id  id of the element
+	 * @param i  position of the element
+	 * @param a  further value of the element or <code>null</code>
+	 */
+	synchronized void add(String id, int i, String a) {
+		if (!isValid())
+			return;
+		while (attributes.size() <= i)
+			attributes.add("");
+		attributes.set(i, a == null ? "" : a);
+		if (!positions.containsKey(id))
+			positions.put(id, Integer.valueOf(i));
+	}
+
+	/** Check if the index belongs to the actual session.
+	 * 
+	 * @return <code>true</code> iff the index can be used
+	 */
+	private boolean isValid() {
+		return session >= 0 && session == ScormAdapter.adapter.cache.getSession();
+	}
+
+	/** Read the ids (and further values) of all elements with a single
+	 *  bulk read if the index is not valid.
+	 * 
+	 * @throws ScormDataAccessException an error is reported by a SCORM function
+	 */
+	private void update() throws ScormDataAccessException {
+		if (isValid())
+			return;
+		int s = ScormAdapter.adapter.cache.getSession();
+		positions.clear();
+		attributes.clear();
+		String c = ScormAdapter.adapter.getScormCharValue(collection + "._count");
+		int n = c.length() == 0 ? 0 : Integer.parseInt(c);
+		List<String> keys = new ArrayList<String>(attribute == null ? n : 2 * n);
+		for (int i=0; i<n; i++) {
+			keys.add(collection + "." + i + ".id");
+			if (attribute != null)
+				keys.add(collection + "." + i + "." + attribute);
+		}
+		Map<String, String> v = ScormAdapter.adapter.getScormCharValues(keys,
+				new HashMap<String, String>());
+		for (int i=0; i<n; i++) {
+			String id = v.get(collection + "." + i + ".id");
+			if (id != null && id.length() > 0 && !positions.containsKey(id))
+				positions.put(id, Integer.valueOf(i));
+			attributes.add(attribute == null ? "" :
+				v.get(collection + "." + i + "." + attribute));
+		}
+		session = s;
+	}
+
+}
@@ -0,0 +1,363 @@
+/** Copyright 2010 Timo Scheuer
+ * 
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.dfki.allegro.scorm;
+
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/** Transport that simulates an LMS inside the Java VM. The data model
+ *  is kept in a simple map, so the library can be used without a
+ *  browser, e.g. in a server VM or for benchmarks of the data model.
+ *
+ *  The simulation covers the session life cycle (including the
+ *  corresponding error codes), the <code>_count</code>,
+ *  <code>_children</code> and <code>_version</code> keywords and the
+ *  rule that a new collection element must use the next free index.
+ *  Values are not validated against the SCORM data types.
+ *
+ * @author Timo Scheuer
+ *
+ */
+public class InMemoryTransport implements ScormTransport {
+
+	/** Session state: <code>Initialize("")</code> not called yet.*/
+	private static final int NOT_INITIALIZED = 0;
+	/** Session state: the communication session is running.*/
+	private static final int RUNNING = 1;
+	/** Session state: <code>Terminate("")</code> has been called.*/
+	private static final int TERMINATED = 2;
+
+	/** Values of the <code>_children</code> keywords. The collection
+	 *  indices of the keys are replaced by <code>n</code>.
+	 */
+	private static final Map<String, String> CHILDREN = new HashMap<String, String>();
+
+	static {
+		CHILDREN.put("cmi.comments_from_learner._children", "comment,location,timestamp");
+		CHILDREN.put("cmi.comments_from_lms._children", "comment,location,timestamp");
+		CHILDREN.put("cmi.interactions._children", "id,type,objectives,timestamp," +
+				"correct_responses,weighting,learner_response,result,latency,description");
+		CHILDREN.put("cmi.learner_preference._children",
+				"audio_level,language,delivery_speed,audio_captioning");
+		CHILDREN.put("cmi.objectives._children",
+				"id,score,success_status,completion_status,progress_measure,description");
+		CHILDREN.put("cmi.objectives.n.score._children", "scaled,raw,min,max");
+		CHILDREN.put("cmi.score._children", "scaled,raw,min,max");
+		CHILDREN.put("adl.data._children", "id,store");
+	}
+
+	/** Data model values.*/
+	private final Map<String, String> values = new HashMap<String, String>();
+	/** Number of elements per collection (key without <code>._count</code>).*/
+	private final Map<String, Integer> counts = new HashMap<String, Integer>();
+
+	/** Current session state.*/
+	private int state = NOT_INITIALIZED;
+	/** Error code of the last call.*/
+	private int lastError = 0;
+	/** Diagnostic information about the last error.*/
+	private String lastDiagnostic = "";
+	/** Number of calls of the API functions.*/
+	private int calls = 0;
+	/** Number of successful commits.*/
+	private int commits = 0;
+
+
+	/** Ctor. The data model is empty.
+	 * 
+	 */
+	public InMemoryTransport() {
+	}
+
+	/** Ctor.
+	 * 
+	 * @param initial  values the LMS provides at launch time, e.g.
+	 *                  <code>cmi.learner_id</code> or <code>cmi.mode</code>
+	 */
+	public InMemoryTransport(Map<String, String> initial) {
+		for (Map.Entry<String, String> e : initial.entrySet())
+			preset(e.getKey(), e.getValue());
+	}
+
+	/** Set a value like the LMS does, i.e. without the checks of
+	 *  <code>setValue</code>. Can be used to provide read-only values.
+	 * 
+	 * @param key  data model element
+	 * @param value  the value
+	 */
+	public synchronized void preset(String key, String value) {
+		store(key, value, true);
+	}
+
+	/** Begin the communication session.
+	 * 
+	 * @return <code>true</code> iff the session has been started
+	 */
+	public synchronized boolean initialize() {
+		calls++;
+		if (state == RUNNING)
+			return fail(103, "");
+		if (state == TERMINATED)
+			return fail(104, "");
+		state = RUNNING;
+		return succeed();
+	}
+
+	/** End the communication session.
+	 * 
+	 * @return <code>true</code> iff the session has been terminated
+	 */
+	public synchronized boolean terminate() {
+		calls++;
+		if (state == NOT_INITIALIZED)
+			return fail(112, "");
+		if (state == TERMINATED)
+			return fail(113, "");
+		state = TERMINATED;
+		commits++;
+		return succeed();
+	}
+
+	/** Persist all data. The values are kept in memory anyway, hence
+	 *  only the life cycle is checked.
+	 * 
+	 * @return <code>true</code> iff the session is running
+	 */
+	public synchronized boolean commit() {
+		calls++;
+		if (state == NOT_INITIALIZED)
+			return fail(142, "");
+		if (state == TERMINATED)
+			return fail(143, "");
+		commits++;
+		return succeed();
+	}
+
+	/** Read a value of the data model.
+	 * 
+	 * @param key  data model element
+	 * @return the value or the empty <code>String</code> if an error
+	 *          occurred
+	 */
+	public synchronized String getValue(String key) {
+		calls++;
+		if (state == NOT_INITIALIZED) {
+			fail(122, key);
+			return "";
+		}
+		if (state == TERMINATED) {
+			fail(123, key);
+			return "";
+		}
+		if (key.length() == 0) {
+			fail(301, "empty key");
+			return "";
+		}
+		if (key.endsWith("._count")) {
+			Integer n = counts.get(key.substring(0, key.length() - 7));
+			succeed();
+			return n == null ? "0" : n.toString();
+		}
+		if (key.endsWith("._children")) {
+			String c = CHILDREN.get(CmiDataModel.normalize(key));
+			if (c == null) {
+				fail(301, key);
+				return "";
+			}
+			succeed();
+			return c;
+		}
+		if (key.equals("cmi._version")) {
+			succeed();
+			return "1.0";
+		}
+		String v = values.get(key);
+		if (v == null) {
+			fail(403, key);
+			return "";
+		}
+		succeed();
+		return v;
+	}
+
+	/** Read a sequence of values of the data model.
+	 * 
+	 * @param keys  data model elements
+	 * @return the values in the order of the keys
+	 */
+	public synchronized List<String> getValues(List<String> keys) {
+		List<String> l = new ArrayList<String>(keys.size());
+		for (String k : keys)
+			l.add(getValue(k));
+		return l;
+	}
+
+	/** Read all values described by a list of key templates.
+	 * 
+	 * @param templates  key templates
+	 * @return all read values by key
+	 */
+	public synchronized Map<String, String> getValueTree(List<String> templates) {
+		return CmiDataModel.readTree(this, templates);
+	}
+
+	/** Write a value of the data model.
+	 * 
+	 * @param key  data model element
+	 * @param value  the new value
+	 * @return <code>true</code> iff the value has been stored
+	 */
+	public synchronized boolean setValue(String key, String value) {
+		calls++;
+		if (state == NOT_INITIALIZED)
+			return fail(132, key);
+		if (state == TERMINATED)
+			return fail(133, key);
+		if (key.length() == 0)
+			return fail(351, "empty key");
+		if (key.endsWith("._count") || key.endsWith("._children") ||
+				key.equals("cmi._version"))
+			return fail(404, key);
+		if (!store(key, value, false))
+			return fail(351, "index out of range: " + key);
+		return succeed();
+	}
+
+	/** Write a sequence of values. Writing stops at the first value
+	 *  which is rejected.
+	 * 
+	 * @param keys  data model elements
+	 * @param values  the new values (same order as the keys)
+	 * @return the index of the first rejected value or <code>-1</code>
+	 *          if all values have been written
+	 */
+	public synchronized int setValues(List<String> keys, List<String> values) {
+		for (int i=0, n=keys.size(); i<n; i++)
+			if (!setValue(keys.get(i), values.get(i)))
+				return i;
+		return -1;
+	}
+
+	/** Get the error code of the last API call.
+	 * 
+	 * @return SCORM error code
+	 */
+	public synchronized String getLastError() {
+		return Integer.toString(lastError);
+	}
+
+	/** Get the textual description of an error code.
+	 * 
+	 * @param code  SCORM error code
+	 * @return error description as defined by SCORM 2004
+	 */
+	public String getErrorString(String code) {
+		try {
+			return ScormDataAccessException.standardErrorString(Integer.parseInt(code));
+		} catch (NumberFormatException e) {
+			return "";
+		}
+	}
+
+	/** Get details of an error code. Details are only available for
+	 *  the error of the last call.
+	 * 
+	 * @param code  SCORM error code
+	 * @return the affected data model element or the empty
+	 *          <code>String</code>
+	 */
+	public synchronized String getDiagnostic(String code) {
+		return Integer.toString(lastError).equals(code) ? lastDiagnostic : "";
+	}
+
+	/** Get the number of API function calls so far. Reading errors
+	 *  is not counted.
+	 * 
+	 * @return number of calls
+	 */
+	public synchronized int getCallCount() {
+		return calls;
+	}
+
+	/** Get the number of successful commits (including the one
+	 *  implied by <code>Terminate("")</code>).
+	 * 
+	 * @return number of commits
+	 */
+	public synchronized int getCommitCount() {
+		return commits;
+	}
+
+	/** Store a value and maintain the element counts of all
+	 *  collections the key belongs to. A new element must use the
+	 *  next free index of its collection.
+	 * 
+	 * @param key  data model element
+	 * @param value  the value
+	 * @param force  <code>true</code> to accept any index
+	 * @return <code>false</code> iff an index is out of range
+	 */
+	private boolean store(String key, String value, boolean force) {
+		int start = 0;
+		int dot;
+		while ((dot = key.indexOf('.', start)) >= 0) {
+			int end = key.indexOf('.', dot + 1);
+			if (end < 0)
+				break;
+			int index = CmiDataModel.parseIndex(key, dot + 1, end);
+			if (index >= 0) {
+				String collection = key.substring(0, dot);
+				Integer n = counts.get(collection);
+				int count = n == null ? 0 : n.intValue();
+				if (index >= count) {
+					if (index > count && !force)
+						return false;
+					counts.put(collection, Integer.valueOf(index + 1));
+				}
+			}
+			start = dot + 1;
+		}
+		values.put(key, value);
+		return true;
+	}
+
+	/** Record a successful call.
+	 * 
+	 * @return <code>true</code>
+	 */
+	private boolean succeed() {
+		lastError = 0;
+		lastDiagnostic = "";
+		return true;
+	}
+
+	/** Record a failed call.
+	 * 
+	 * @param code  SCORM error code
+	 * @param diagnostic  details about the error
+	 * @return <code>false</code>
+	 */
+	private boolean fail(int code, String diagnostic) {
+		lastError = code;
+		lastDiagnostic = diagnostic;
+		return false;
+	}
+
+}
@@ -18,9 +18,12 @@ package de.dfki.allegro.scorm;
 
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import de.dfki.allegro.scorm.annotation.ScormIdentifier;
 import de.dfki.allegro.scorm.annotation.ScormSizeLimit;
@@ -74,7 +77,7 @@ public class Interaction extends ScormElement {
 	 * @return comment of the student.
 	 */
 	public String getId() {
-		return ScormAdapter.adapter.getScormCharValue(key + "id");
+		return ScormAdapter.adapter.getScormCharValue(key("id"));
 	}
 
 	/** Set the id of the interaction. The id represents a URI.
@@ -88,7 +91,8 @@ public class Interaction extends ScormElement {
 	@ScormIdentifier
 	@ScormSizeLimit(4000)
 	void setId(String i) {
-		ScormAdapter.adapter.setScormCharValue(key + "id", i.toString());
+		InteractionConstraints.setId(i);
+		ScormAdapter.adapter.setScormCharValue(key("id"), i.toString());
 	}
 
 	/** Get the interaction type.
@@ -107,7 +111,7 @@ public class Interaction extends ScormElement {
 	 *  @see de.dfki.allegro.scorm.Attempt#getObjectives()
 	 */
 	public ObjectiveIds getObjectiveIds() {
-		return new ObjectiveIds(key + "objectives");
+		return new ObjectiveIds(key("objectives"));
 	}
 	
 	/** Get the interaction timestamp.
@@ -117,7 +121,7 @@ public class Interaction extends ScormElement {
 	 *      the attribute has not been set yet
 	 */
 	public Date getTimestamp() throws ScormEmptyAttributeException {
-		return ScormAdapter.adapter.getScormTimestamp(key + "timestamp");
+		return ScormAdapter.adapter.getScormTimestamp(key("timestamp"));
 	}
 
 	/** Set the interaction timestamp.
@@ -125,7 +129,7 @@ public class Interaction extends ScormElement {
 	 * @param t  interaction timestamp
 	 */
 	public void setTimestamp(Date d) {
-		ScormAdapter.adapter.setScormTimestamp(key + "timestamp", d);
+		ScormAdapter.adapter.setScormTimestamp(key("timestamp"), d);
 	}
 
 	/** Get the interaction weighting. The weight of an interaction
@@ -138,7 +142,7 @@ public class Interaction extends ScormElement {
 	 *      the attribute has not been set yet
 	 */
 	public float getWeighting() throws ScormEmptyAttributeException {
-		return ScormAdapter.adapter.getScormFloat(key + "weighting");
+		return ScormAdapter.adapter.getScormFloat(key("weighting"));
 	}
 
 	/** Set the interaction weighting. The weight of an interaction
@@ -150,7 +154,7 @@ public class Interaction extends ScormElement {
 	 */
 	public void setWeighting(Float w) {
 		ScormAdapter.adapter.setScormCharValue(
-				key + "weighting", w.toString());
+				key("weighting"), w.toString());
 	}
 
 	/** Get the description
@@ -161,7 +165,7 @@ public class Interaction extends ScormElement {
 	public LocalizedString getDescription() {
 		return new LocalizedString(
 				ScormAdapter.adapter.getScormCharValue(
-						key + "description"));
+						key("description")));
 	}
 
 	/** Set the description
@@ -171,8 +175,9 @@ public class Interaction extends ScormElement {
 	 */
 	@ScormSizeLimit(250)
 	public void setDescription(LocalizedString d) {
-		ScormAdapter.adapter.setScormCharValue(
-				key + "description", d.toString());
+		InteractionConstraints.setDescription(d);
+		ScormAdapter.adapter.setScormValue(
+				key("description"), d);
 	}
 
 	/** Set the latency that describes the time elapsed between
@@ -182,7 +187,7 @@ public class Interaction extends ScormElement {
 	 * @param t  the latency
 	 */
 	public void setLatency(TimeInterval t) {
-		ScormAdapter.adapter.setScormCharValue(key + "latency", t.toString());
+		ScormAdapter.adapter.setScormValue(key("latency"), t);
 	}
 
 	/** Get the latency that describes the time elapsed between
@@ -199,7 +204,7 @@ public class Interaction extends ScormElement {
 	 *          you tried to access a value before it had been set to a valid value 
 	 */
 	public TimeInterval getLatency() throws ScormFormatException, ScormDataAccessException, ScormEmptyAttributeException {
-		return ScormAdapter.adapter.getScormTimeInterval(key + "latency");
+		return ScormAdapter.adapter.getScormTimeInterval(key("latency"));
 	}
 
 	/** Get the learner response. To determine the exact type
@@ -210,29 +215,8 @@ public class Interaction extends ScormElement {
 	 * @see de.dfki.allegro.scorm.response.Response#getType()
 	 */
 	public Response<?> getLearnerResponse() {
-		String r = ScormAdapter.adapter.getScormCharValue(key + "learner_response");
-		switch (type) {
-		case TRUE_FALSE:
-			return new ResponseTrueFalse(r);
-		case CHOICE:
-			return	new ResponseChoice(r);
-		case FILL_IN:
-			return	new ResponseFillIn(r);
-		case LONG_FILL_IN:
-			return	new ResponseLongFillIn(r);
-		case LIKERT:
-			return	new ResponseLikert(r);
-		case MATCHING:
-			return	new ResponseMatching(r);
-		case PERFORMANCE:
-			return	new ResponsePerformance(r);
-		case SEQUENCING:
-			return	new ResponseSequencing(r);
-		case NUMERIC:
-			return	new ResponseNumeric(r);
-		default:
-			return	new ResponseOther(r);
-		}		
+		return createLearnerResponse(type,
+				ScormAdapter.adapter.getScormCharValue(key("learner_response")));
 	}
 
 	/** Set the learner response.
@@ -240,7 +224,7 @@ public class Interaction extends ScormElement {
 	 * @param r  learner response
 	 */
 	public void setLearnerResponse(Response<?> r) {
-		ScormAdapter.adapter.setScormCharValue(key + "learner_response", r.toString());
+		ScormAdapter.adapter.setScormValue(key("learner_response"), r);
 	}
 
 	/** Get the all correct responses. To determine the exact type
@@ -252,34 +236,17 @@ public class Interaction extends ScormElement {
 	 */
 	public List<CorrectResponse> getCorrectResponses() {
 		int size = Integer.valueOf(ScormAdapter.adapter.getScormCharValue(
-				key + "correct_responses._count"));
+				key("correct_responses._count")));
 		List<CorrectResponse> l = new ArrayList<CorrectResponse>(size);
-		String k = key + "correct_responses.";
-		for (int i=0; i<size; i++) {
-			String r = ScormAdapter.adapter.getScormCharValue(k + i + ".pattern");
-			switch (type) {
-			case TRUE_FALSE:
-				l.add(new CorrectResponseTrueFalse(r));
-			case CHOICE:
-				l.add(new CorrectResponseChoice(r));
-			case FILL_IN:
-				l.add(new CorrectResponseFillIn(r));
-			case LONG_FILL_IN:
-				l.add(new CorrectResponseLongFillIn(r));
-			case LIKERT:
-				l.add(new CorrectResponseLikert(r));
-			case MATCHING:
-				l.add(new CorrectResponseMatching(r));
-			case PERFORMANCE:
-				l.add(new CorrectResponsePerformance(r));
-			case SEQUENCING:
-				l.add(new CorrectResponseSequencing(r));
-			case NUMERIC:
-				l.add(new CorrectResponseNumeric(r));
-			default:
-				l.add(new CorrectResponseOther(r));
-			}		
-		}
+		String k = key("correct_responses.");
+		List<String> keys = new ArrayList<String>(size);
+		for (int i=0; i<size; i++)
+			keys.add(k + i + ".pattern");
+		// read all patterns at once
+		Map<String, String> patterns = ScormAdapter.adapter.getScormCharValues(
+				keys, new HashMap<String, String>());
+		for (int i=0; i<size; i++)
+			l.add(createCorrectResponse(type, patterns.get(keys.get(i))));
 		return l;
 	}
 	
@@ -296,27 +263,125 @@ public class Interaction extends ScormElement {
 		switch (type) {
 		case TRUE_FALSE:
 			setCorrectResponsesTrueFalse(c);
+			break;
 		case CHOICE:
 			setCorrectResponsesChoice(c);
+			break;
 		case FILL_IN:
 			setCorrectResponsesFillIn(c);
+			break;
 		case LONG_FILL_IN:
 			setCorrectResponsesLongFillIn(c);
+			break;
 		case LIKERT:
 			setCorrectResponsesLikert(c);
+			break;
 		case MATCHING:
 			setCorrectResponsesMatching(c);
+			break;
 		case PERFORMANCE:
 			setCorrectResponsesPerformance(c);
+			break;
 		case SEQUENCING:
 			setCorrectResponsesSequencing(c);
+			break;
 		case NUMERIC:
 			setCorrectResponsesNumeric(c);
+			break;
 		default:
 			setCorrectResponsesOther(c);
 		}		
 	}
 
+	/** Read all data of the interaction from the LMS at once,
+	 *  including the objective ids and all correct response patterns.
+	 *  Transports which support bulk reads need a single call of the
+	 *  LMS for this.
+	 * 
+	 * @return immutable copy of the interaction data
+	 * @throws ScormDataAccessException an error is reported by a SCORM function
+	 */
+	public InteractionSnapshot load() throws ScormDataAccessException {
+		return new InteractionSnapshot(type, key,
+				ScormAdapter.adapter.getScormValueTree(templates(key)));
+	}
+
+	/** Get the key templates of all data of an interaction.
+	 * 
+	 * @param k  SCORM data access key of the interaction (ending with a
+	 *            dot) or the template <code>cmi.interactions.n.</code>
+	 * @return key templates
+	 * @see de.dfki.allegro.scorm.ScormTransport#getValueTree(List)
+	 */
+	static List<String> templates(String k) {
+		return Arrays.asList(k + "id", k + "type", k + "timestamp",
+				k + "weighting", k + "learner_response", k + "result",
+				k + "latency", k + "description", k + "objectives.n.id",
+				k + "correct_responses.n.pattern");
+	}
+
+	/** Create the learner response of an interaction type.
+	 * 
+	 * @param t  the interaction type
+	 * @param r  the response as read from the LMS
+	 * @return learner response
+	 */
+	static Response<?> createLearnerResponse(InteractionType t, String r) {
+		switch (t) {
+		case TRUE_FALSE:
+			return new ResponseTrueFalse(r);
+		case CHOICE:
+			return	new ResponseChoice(r);
+		case FILL_IN:
+			return	new ResponseFillIn(r);
+		case LONG_FILL_IN:
+			return	new ResponseLongFillIn(r);
+		case LIKERT:
+			return	new ResponseLikert(r);
+		case MATCHING:
+			return	new ResponseMatching(r);
+		case PERFORMANCE:
+			return	new ResponsePerformance(r);
+		case SEQUENCING:
+			return	new ResponseSequencing(r);
+		case NUMERIC:
+			return	new ResponseNumeric(r);
+		default:
+			return	new ResponseOther(r);
+		}		
+	}
+
+	/** Create a correct response of an interaction type.
+	 * 
+	 * @param t  the interaction type
+	 * @param r  the pattern as read from the LMS
+	 * @return correct response
+	 */
+	static CorrectResponse createCorrectResponse(InteractionType t, String r) {
+		switch (t) {
+		case TRUE_FALSE:
+			return new CorrectResponseTrueFalse(r);
+		case CHOICE:
+			return new CorrectResponseChoice(r);
+		case FILL_IN:
+			return new CorrectResponseFillIn(r);
+		case LONG_FILL_IN:
+			return new CorrectResponseLongFillIn(r);
+		case LIKERT:
+			return new CorrectResponseLikert(r);
+		case MATCHING:
+			return new CorrectResponseMatching(r);
+		case PERFORMANCE:
+			return new CorrectResponsePerformance(r);
+		case SEQUENCING:
+			return new CorrectResponseSequencing(r);
+		case NUMERIC:
+			return new CorrectResponseNumeric(r);
+		default:
+			return new CorrectResponseOther(r);
+		}		
+	}
+
 	/** Set the correct responses of this interaction.
 	 *  This method can be used if there will be exactly
 	 *  one correct response.
@@ -327,8 +392,8 @@ public class Interaction extends ScormElement {
 	 * @param c  collection of all correct responses of this interaction
 	 */
 	public void setCorrectResponse(CorrectResponse c) {
-		ScormAdapter.adapter.setScormCharValue(
-				key + "correct_responses.0.pattern", c.toString());
+		ScormAdapter.adapter.setScormValue(
+				key("correct_responses.0.pattern"), c);
 	}
 
 	/** Set the numeric correct responses of this interaction.
@@ -339,6 +404,7 @@ public class Interaction extends ScormElement {
 	 */
 	@ScormSizeLimit(value=1,min=1)
 	private void setCorrectResponsesNumeric(Collection<? extends CorrectResponse> c) {
+		InteractionConstraints.setCorrectResponsesNumeric(c);
 		setCorrectResponse(c.iterator().next());
 	}
 
@@ -350,10 +416,11 @@ public class Interaction extends ScormElement {
 	 */
 	@ScormSizeLimit(value=10,min=1)
 	private void setCorrectResponsesChoice(Collection<? extends CorrectResponse> c) {
+		InteractionConstraints.setCorrectResponsesChoice(c);
 		int i=0;
-		String k = key + "correct_responses.";
+		String k = key("correct_responses.");
 		for (CorrectResponse cr : c)
-			ScormAdapter.adapter.setScormCharValue(k + i++ + ".pattern", cr.toString());
+			ScormAdapter.adapter.setScormValue(k + i++ + ".pattern", cr);
 	}
 
 	/** Set the true-false correct responses of this interaction.
@@ -364,10 +431,11 @@ public class Interaction extends ScormElement {
 	 */
 	@ScormSizeLimit(value=5,min=1)
 	private void setCorrectResponsesFillIn(Collection<? extends CorrectResponse> c) {
+		InteractionConstraints.setCorrectResponsesFillIn(c);
 		int i=0;
-		String k = key + "correct_responses.";
+		String k = key("correct_responses.");
 		for (CorrectResponse cr : c)
-			ScormAdapter.adapter.setScormCharValue(k + i++ + ".pattern", cr.toString());
+			ScormAdapter.adapter.setScormValue(k + i++ + ".pattern", cr);
 	}
 
 	/** Set the true-false correct responses of this interaction.
@@ -378,10 +446,11 @@ public class Interaction extends ScormElement {
 	 */
 	@ScormSizeLimit(value=5,min=1)
 	private void setCorrectResponsesLongFillIn(Collection<? extends CorrectResponse> c) {
+		InteractionConstraints.setCorrectResponsesLongFillIn(c);
 		int i=0;
-		String k = key + "correct_responses.";
+		String k = key("correct_responses.");
 		for (CorrectResponse cr : c)
-			ScormAdapter.adapter.setScormCharValue(k + i++ + ".pattern", cr.toString());
+			ScormAdapter.adapter.setScormValue(k + i++ + ".pattern", cr);
 	}
 
 	/** Set the true-false correct responses of this interaction.
@@ -392,6 +461,7 @@ public class Interaction extends ScormElement {
 	 */
 	@ScormSizeLimit(value=1,min=1)
 	private void setCorrectResponsesLikert(Collection<? extends CorrectResponse> c) {
+		InteractionConstraints.setCorrectResponsesLikert(c);
 		setCorrectResponse(c.iterator().next());
 	}
 
@@ -403,10 +473,11 @@ public class Interaction extends ScormElement {
 	 */
 	@ScormSizeLimit(value=5,min=1)
 	private void setCorrectResponsesMatching(Collection<? extends CorrectResponse> c) {
+		InteractionConstraints.setCorrectResponsesMatching(c);
 		int i=0;
-		String k = key + "correct_responses.";
+		String k = key("correct_responses.");
 		for (CorrectResponse cr : c)
-			ScormAdapter.adapter.setScormCharValue(k + i++ + ".pattern", cr.toString());
+			ScormAdapter.adapter.setScormValue(k + i++ + ".pattern", cr);
 	}
 
 	/** Set the true-false correct responses of this interaction.
@@ -417,10 +488,11 @@ public class Interaction extends ScormElement {
 	 */
 	@ScormSizeLimit(value=5,min=1)
 	private void setCorrectResponsesSequencing(Collection<? extends CorrectResponse> c) {
+		InteractionConstraints.setCorrectResponsesSequencing(c);
 		int i=0;
-		String k = key + "correct_responses.";
+		String k = key("correct_responses.");
 		for (CorrectResponse cr : c)
-			ScormAdapter.adapter.setScormCharValue(k + i++ + ".pattern", cr.toString());
+			ScormAdapter.adapter.setScormValue(k + i++ + ".pattern", cr);
 	}
 
 	/** Set the true-false correct responses of this interaction.
@@ -431,6 +503,7 @@ public class Interaction extends ScormElement {
 	 */
 	@ScormSizeLimit(value=1, min=1)
 	private void setCorrectResponsesTrueFalse(Collection<? extends CorrectResponse> c) {
+		InteractionConstraints.setCorrectResponsesTrueFalse(c);
 		setCorrectResponse(c.iterator().next());
 	}
 
@@ -442,6 +515,7 @@ public class Interaction extends ScormElement {
 	 */
 	@ScormSizeLimit(value=1,min=1)
 	private void setCorrectResponsesOther(Collection<? extends CorrectResponse> c) {
+		InteractionConstraints.setCorrectResponsesOther(c);
 		setCorrectResponse(c.iterator().next());
 	}
 
@@ -453,10 +527,11 @@ public class Interaction extends ScormElement {
 	 */
 	@ScormSizeLimit(value=5,min=1)
 	private void setCorrectResponsesPerformance(Collection<? extends CorrectResponse> c) {
+		InteractionConstraints.setCorrectResponsesPerformance(c);
 		int i=0;
-		String k = key + "correct_responses.";
+		String k = key("correct_responses.");
 		for (CorrectResponse cr : c)
-			ScormAdapter.adapter.setScormCharValue(k + i++ + ".pattern", cr.toString());
+			ScormAdapter.adapter.setScormValue(k + i++ + ".pattern", cr);
 	}
 
 }
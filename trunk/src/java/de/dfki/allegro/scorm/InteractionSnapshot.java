@@ -0,0 +1,245 @@
+/** Copyright 2010 Timo Scheuer
+ * 
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.dfki.allegro.scorm;
+
+
+import java.io.Serializable;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import de.dfki.allegro.scorm.response.Response;
+import de.dfki.allegro.scorm.response.correct.CorrectResponse;
+import de.dfki.allegro.scorm.token.InteractionType;
+import de.dfki.allegro.scorm.util.LocalizedString;
+import de.dfki.allegro.scorm.util.TimeInterval;
+
+
+/** Immutable copy of the data of an <code>Interaction</code>. All
+ *  values are read at once when the snapshot is created, so the
+ *  getters never call the LMS. Values which have not been set are
+ *  returned as <code>null</code>.
+ *
+ *  The getters returning mutable objects (e.g. responses) create a
+ *  new object with every call.
+ *
+ * @author Timo Scheuer
+ *
+ * @see de.dfki.allegro.scorm.Interaction#load()
+ * @see de.dfki.allegro.scorm.Interactions#load()
+ */
+public final class InteractionSnapshot implements Serializable {
+
+	/** Serial version id. */
+	private static final long serialVersionUID = 1L;
+
+	/** The interaction id.*/
+	private final String id;
+	/** The interaction type.*/
+	private final InteractionType type;
+	/** The timestamp in milliseconds or <code>null</code>.*/
+	private final Long timestamp;
+	/** The weighting or <code>null</code>.*/
+	private final Float weighting;
+	/** The learner response as read from the LMS or <code>null</code>.*/
+	private final String learnerResponse;
+	/** The result as read from the LMS or <code>null</code>.*/
+	private final String result;
+	/** The latency as read from the LMS or <code>null</code>.*/
+	private final String latency;
+	/** The description as read from the LMS or <code>null</code>.*/
+	private final String description;
+	/** The objective ids.*/
+	private final List<String> objectiveIds;
+	/** The correct response patterns as read from the LMS.*/
+	private final List<String> correctResponses;
+
+
+	/** Ctor.
+	 * 
+	 * @param t  the interaction type
+	 * @param k  SCORM data access key of the interaction (ending with
+	 *            a dot)
+	 * @param m  values read from the LMS by key
+	 */
+	InteractionSnapshot(InteractionType t, String k, Map<String, String> m) {
+		type = t;
+		id = value(m, k + "id");
+		String s = value(m, k + "timestamp");
+		timestamp = s == null ? null :
+			Long.valueOf(ScormAdapter.parseScormTimestamp(s).getTime());
+		s = value(m, k + "weighting");
+		try {
+			weighting = s == null ? null : Float.valueOf(s);
+		} catch (NumberFormatException e) {
+			String error = "The value '" + s + "' is not a real number!";
+			throw new RuntimeException(error, e);
+		}
+		learnerResponse = value(m, k + "learner_response");
+		result = value(m, k + "result");
+		latency = value(m, k + "latency");
+		description = value(m, k + "description");
+		objectiveIds = collection(m, k + "objectives", "id");
+		correctResponses = collection(m, k + "correct_responses", "pattern");
+	}
+
+	/** Get the id of the interaction.
+	 * 
+	 * @return the id
+	 */
+	public String getId() {
+		return id;
+	}
+
+	/** Get the interaction type.
+	 * 
+	 * @return interaction type
+	 */
+	public InteractionType getType() {
+		return type;
+	}
+
+	/** Get the interaction timestamp.
+	 * 
+	 * @return interaction timestamp or <code>null</code>
+	 */
+	public Date getTimestamp() {
+		return timestamp == null ? null : new Date(timestamp.longValue());
+	}
+
+	/** Get the interaction weighting.
+	 * 
+	 * @return interaction weighting or <code>null</code>
+	 */
+	public Float getWeighting() {
+		return weighting;
+	}
+
+	/** Get the learner response.
+	 * 
+	 * @return learner response or <code>null</code>
+	 */
+	public Response<?> getLearnerResponse() {
+		return learnerResponse == null ? null :
+			Interaction.createLearnerResponse(type, learnerResponse);
+	}
+
+	/** Get the result of the interaction. The result is either one
+	 *  of the values <code>correct</code>, <code>incorrect</code>,
+	 *  <code>unanticipated</code> and <code>neutral</code> or a real
+	 *  number.
+	 * 
+	 * @return the result or <code>null</code>
+	 */
+	public String getResult() {
+		return result;
+	}
+
+	/** Get the latency that describes the time elapsed between
+	 *  the time the interaction was made available to the student
+	 *  and the time of the first response.
+	 * 
+	 * @return the latency or <code>null</code>
+	 * @throws de.dfki.allegro.scorm.ScormFormatException the format returned
+	 *                                                     by the LMS is not correct
+	 *                                                     according to the SCORM
+	 *                                                     2004 specification
+	 */
+	public TimeInterval getLatency() throws ScormFormatException {
+		if (latency == null)
+			return null;
+		try {
+			return new TimeInterval(latency);
+		} catch (ParseException e) {
+			throw new ScormFormatException(e.getMessage(), e);
+		}
+	}
+
+	/** Get the description.
+	 * 
+	 * @return the description or <code>null</code>
+	 */
+	public LocalizedString getDescription() {
+		return description == null ? null : new LocalizedString(description);
+	}
+
+	/** Get the ids of the objectives of the interaction.
+	 * 
+	 * @return unmodifiable list of objective ids
+	 */
+	public List<String> getObjectiveIds() {
+		return objectiveIds;
+	}
+
+	/** Get the all correct responses.
+	 * 
+	 * @return list of all correct responses
+	 */
+	public List<CorrectResponse> getCorrectResponses() {
+		List<CorrectResponse> l = new ArrayList<CorrectResponse>(correctResponses.size());
+		for (String r : correctResponses)
+			l.add(Interaction.createCorrectResponse(type, r));
+		return l;
+	}
+
+	/** Get a <code>String</code> representation.
+	 * 
+	 *  @return Java <code>String</code> representation
+	 */
+	public String toString() {
+		return "InteractionSnapshot(" + id + ", " + type + ")";
+	}
+
+	/** Get a value which has been read.
+	 * 
+	 * @param m  values read from the LMS by key
+	 * @param k  SCORM data access key
+	 * @return the value or <code>null</code> if the value is not set
+	 */
+	private static String value(Map<String, String> m, String k) {
+		String s = m.get(k);
+		return s == null || s.length() == 0 ? null : s;
+	}
+
+	/** Get the values of an element of all entries of a collection.
+	 * 
+	 * @param m  values read from the LMS by key
+	 * @param k  SCORM data access key of the collection
+	 * @param element  name of the element
+	 * @return unmodifiable list of the values
+	 */
+	private static List<String> collection(Map<String, String> m, String k, String element) {
+		String c = m.get(k + "._count");
+		int n;
+		try {
+			n = c == null ? 0 : Integer.parseInt(c);
+		} catch (NumberFormatException e) {
+			n = 0;
+		}
+		if (n == 0)
+			return Collections.emptyList();
+		List<String> l = new ArrayList<String>(n);
+		for (int i=0; i<n; i++) {
+			String s = m.get(k + "." + i + "." + element);
+			l.add(s == null ? "" : s);
+		}
+		return Collections.unmodifiableList(l);
+	}
+
+}
@@ -19,7 +19,9 @@ package de.dfki.allegro.scorm;
 
 import java.util.AbstractMap;
 import java.util.AbstractSet;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -45,6 +47,9 @@ import de.dfki.allegro.scorm.token.LMSCapability;
  */
 public class Interactions extends AbstractMap<String, Interaction> {
 
+	/** Access keys of the interactions.*/
+	private static final ElementKeys KEYS = ElementKeys.of("cmi.interactions.");
+
 	/** Base class of all interaction map entries. This class provides
 	 *  some common methods.
 	 *  
@@ -102,6 +107,8 @@ public class Interactions extends AbstractMap<String, Interaction> {
 			return new Iterator<Map.Entry<String, Interaction>>() {
 				/** The actual iterator position.*/
 				private int position = 0;
+				/** Number of elements, read once per iteration.*/
+				private final int count = size();
 				
 				/** Returns <code>true</code> iff there is another
 				 *  element.
@@ -109,7 +116,7 @@ public class Interactions extends AbstractMap<String, Interaction> {
 				 *  @return <code>true</code> iff there is a successor
 				 */
 				public boolean hasNext() {
-					return position<size();
+					return position<count;
 				}
 
 				/** Get the next element.
@@ -117,10 +124,7 @@ public class Interactions extends AbstractMap<String, Interaction> {
 				 * @return the next element
 				 */
 				public InteractionMapEntry next() {
-					String k = "cmi.interactions." + position++;
-					InteractionType type = new TokenSelection<InteractionType>(
-							InteractionType.class, k + ".type").getToken();
-					return	new InteractionMapEntry	(new Interaction(type, k));
+					return	new InteractionMapEntry	(handles.get(position++));
 				}
 
 				/** The remove operation is not supported.
@@ -144,6 +148,18 @@ public class Interactions extends AbstractMap<String, Interaction> {
 		}
 	};
 
+	/** Index of the interaction ids. The types are kept, too.*/
+	private final IdIndex index = new IdIndex("cmi.interactions", "type");
+	/** One interaction object per index. The type is taken from the
+	 *  index of the interaction ids.*/
+	private final ElementHandles<Interaction> handles =
+		new ElementHandles<Interaction>() {
+		protected Interaction create(int i) {
+			return new Interaction(InteractionType.getEnum(
+					index.getAttribute(i)), KEYS.index(i));
+		}
+	};
+
 	
 	/** Ctor.
 	 * 
@@ -151,6 +167,26 @@ public class Interactions extends AbstractMap<String, Interaction> {
 	Interactions() {
 	}
 
+	/** Get the interaction with a given id.
+	 * 
+	 * @param id  the interaction id
+	 * @return the interaction or <code>null</code> if there is no
+	 *          interaction with this id
+	 */
+	public Interaction get(Object id) {
+		int i = index.indexOf(id);
+		return i < 0 ? null : handles.get(i);
+	}
+
+	/** Check if there is an interaction with a given id.
+	 * 
+	 * @param id  the interaction id
+	 * @return <code>true</code> iff there is an interaction with this id
+	 */
+	public boolean containsKey(Object id) {
+		return index.indexOf(id) >= 0;
+	}
+
 	/** Create a new <code>Interaction</code> with a given key
 	 *  (id). It is automatically added to the map of all
 	 *  interaction.
@@ -163,8 +199,53 @@ public class Interactions extends AbstractMap<String, Interaction> {
 	 */
 	@ScormSizeLimit(250)
 	public synchronized Interaction createInteraction(String k, InteractionType t) {
-		String sk = "cmi.interactions." + interactionSet.size();
-		return new Interaction(t, sk, k);
+		int i = interactionSet.size();
+		InteractionsConstraints.createInteraction(i);
+		Interaction interaction = new Interaction(t, KEYS.index(i), k);
+		index.add(k, i, t.toString());
+		handles.put(i, interaction);
+		return interaction;
+	}
+
+	/** Read the data of all interactions from the LMS at once.
+	 *  Transports which support bulk reads need a single call of the
+	 *  LMS for this.
+	 * 
+	 * @return immutable copies of all interactions in the order of
+	 *          the LMS
+	 * @throws ScormDataAccessException an error is reported by a SCORM function
+	 */
+	public List<InteractionSnapshot> load() throws ScormDataAccessException {
+		Map<String, String> m = ScormAdapter.adapter.getScormValueTree(
+				Interaction.templates("cmi.interactions.n."));
+		String c = m.get("cmi.interactions._count");
+		int n = c == null || c.length() == 0 ? 0 : Integer.parseInt(c);
+		List<InteractionSnapshot> l = new ArrayList<InteractionSnapshot>(n);
+		for (int i=0; i<n; i++) {
+			String k = KEYS.index(i) + ".";
+			l.add(new InteractionSnapshot(
+					InteractionType.getEnum(m.get(k + "type")), k, m));
+		}
+		return l;
+	}
+
+	/** Get an iterator over all interactions which reads the data of
+	 *  the interactions in pages. While the interactions of a page are
+	 *  processed, the next page is read in the background.
+	 * 
+	 * @param pageSize  number of interactions per page
+	 * @return interaction iterator
+	 * @see de.dfki.allegro.scorm.ScormAdapter#setCaching(boolean)
+	 */
+	public Iterator<Interaction> prefetchingIterator(int pageSize) {
+		return new PrefetchingIterator<Interaction>("cmi.interactions",
+				new String[] {"id", "type", "timestamp", "weighting",
+				"learner_response", "result", "latency", "description"},
+				pageSize) {
+			protected Interaction create(int i) {
+				return handles.get(i);
+			}
+		};
 	}
 
 	/** Get a set view of the map.
@@ -0,0 +1,448 @@
+/** Copyright 2010 Timo Scheuer
+ * 
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.dfki.allegro.scorm;
+
+
+import java.applet.Applet;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import netscape.javascript.JSException;
+import netscape.javascript.JSObject;
+
+
+/** Transport that talks to the SCORM API instance of the surrounding
+ *  web page via the Java applet JavaScript bridge (LiveConnect).
+ *  Every method call is one crossing of the bridge.
+ *
+ *  Session functions and writes return the error code together with
+ *  their result, so <code>getLastError()</code> after such a call is
+ *  answered without crossing the bridge again.
+ *
+ * @author Timo Scheuer
+ *
+ */
+public class JSObjectTransport implements ScormTransport {
+
+	/** Scripts which have grown the buffer beyond this capacity do
+	 *  not keep it.
+	 */
+	private static final int MAX_SCRIPT = 16384;
+
+	/** The connection to the JavaScript engine of the surrounding
+	 *  web page.
+	 */
+	private JSObject scorm;
+	/** Error code of the last call or <code>null</code> if it has to
+	 *  be asked for.
+	 */
+	private String lastError;
+	/** Buffer in which the scripts are built. It is reused by all calls
+	 *  and guarded by this transport.
+	 */
+	private final StringBuilder script = new StringBuilder(256);
+
+
+	/** Ctor. Searches the SCORM API instance in the window hierarchy
+	 *  of the applet.
+	 * 
+	 * @param applet  the Java applet that wishes to communicate with
+	 *                  the LMS.
+	 */
+	public JSObjectTransport(Applet applet) {
+		// get SCORM object
+		scorm = JSObject.getWindow(applet);
+		scorm = (JSObject)scorm.eval(
+		"var nFindAPITries = 0;" +
+		"var API = null;" +
+		"var maxTries = 500;" +
+		"var APIVersion = \"\";" +
+		"function ScanForAPI(win) {" +
+			"while ((win.API_1484_11 == null) && (win.parent != null)" +
+					"&& (win.parent != win)) {" +
+				"nFindAPITries++;" +
+				"if (nFindAPITries > maxTries) {" +
+					"return null;" +
+				"}" +
+				"win = win.parent;" +
+			"}" +
+			"return win.API_1484_11;" +
+		"}" +
+		"function GetAPI(win) {" +
+			"if ((win.parent != null) && (win.parent != win)) {" +
+				"API = ScanForAPI(win.parent);" +
+			"}" +
+			"if ((API == null) && (win.opener != null)) {" +
+				"API = ScanForAPI(win.opener);" +
+			"}" +
+			"if (API != null) {" +
+				"APIVersion = API.version;" +
+			"}" +
+			"return API;" +
+		"}" +
+		"GetAPI(window);"
+		);
+	}
+
+	/** Begin the communication session.
+	 * 
+	 * @return <code>true</code> iff the LMS reports success
+	 * @throws ScormDataAccessException the connection to the LMS failed
+	 */
+	public boolean initialize() throws ScormDataAccessException {
+		return call("Initialize(\"\")");
+	}
+
+	/** End the communication session.
+	 * 
+	 * @return <code>true</code> iff the LMS reports success
+	 * @throws ScormDataAccessException the connection to the LMS failed
+	 */
+	public boolean terminate() throws ScormDataAccessException {
+		return call("Terminate(\"\")");
+	}
+
+	/** Persist all data set since the last commit.
+	 * 
+	 * @return <code>true</code> iff the LMS reports success
+	 * @throws ScormDataAccessException the connection to the LMS failed
+	 */
+	public boolean commit() throws ScormDataAccessException {
+		return call("Commit(\"\")");
+	}
+
+	/** Read a value of the data model.
+	 * 
+	 * @param key  data model element
+	 * @return the value
+	 * @throws ScormDataAccessException the connection to the LMS failed
+	 */
+	public synchronized String getValue(String key) throws ScormDataAccessException {
+		StringBuilder b = script();
+		b.append("GetValue(");
+		appendLiteral(key, b);
+		b.append(");");
+		return read(b);
+	}
+
+	/** Read a sequence of values with a single crossing of the
+	 *  JavaScript bridge. The values are returned as one
+	 *  <code>String</code> in which every value is prefixed by its
+	 *  length and a colon.
+	 * 
+	 * @param keys  data model elements
+	 * @return the values in the order of the keys
+	 * @throws ScormDataAccessException the connection to the LMS failed
+	 */
+	public synchronized List<String> getValues(List<String> keys) throws ScormDataAccessException {
+		int n = keys.size();
+		List<String> l = new ArrayList<String>(n);
+		if (n == 0)
+			return l;
+		if (n == 1) {
+			l.add(getValue(keys.get(0)));
+			return l;
+		}
+		StringBuilder b = script();
+		b.append("(function(){var k=[");
+		for (int i=0; i<n; i++) {
+			if (i > 0)
+				b.append(',');
+			appendLiteral(keys.get(i), b);
+		}
+		b.append("],r=[];for(var i=0;i<k.length;i++){" +
+				"var v=String(GetValue(k[i]));r.push(v.length,\":\",v);}" +
+				"return r.join(\"\");})();");
+		String r = read(b);
+		int pos = 0;
+		try {
+			for (int i=0; i<n; i++) {
+				int colon = r.indexOf(':', pos);
+				int end = colon + 1 + Integer.parseInt(r.substring(pos, colon));
+				l.add(r.substring(colon + 1, end));
+				pos = end;
+			}
+		} catch (RuntimeException e) {
+			throw new ScormDataAccessException(this, e);
+		}
+		return l;
+	}
+
+	/** Read all values described by a list of key templates with a
+	 *  single crossing of the JavaScript bridge. The script expands the
+	 *  templates and returns the keys and values as one
+	 *  <code>String</code> in which every key and every value is
+	 *  prefixed by its length and a colon.
+	 * 
+	 * @param templates  key templates
+	 * @return all read values by key
+	 * @throws ScormDataAccessException the connection to the LMS failed
+	 */
+	public synchronized Map<String, String> getValueTree(List<String> templates) throws ScormDataAccessException {
+		Map<String, String> m = new LinkedHashMap<String, String>();
+		if (templates.isEmpty())
+			return m;
+		StringBuilder b = script();
+		b.append("(function(){var t=[");
+		for (int i=0, n=templates.size(); i<n; i++) {
+			if (i > 0)
+				b.append(',');
+			appendLiteral(templates.get(i), b);
+		}
+		b.append("],r=[],c={};" +
+				"function put(k,v){v=String(v);r.push(k.length,\":\",k,v.length,\":\",v);}" +
+				"function cnt(p){var k=p+\"._count\";if(!(k in c)){" +
+					"c[k]=String(GetValue(k));put(k,c[k]);}" +
+					"return parseInt(c[k],10)||0;}" +
+				"function walk(p,s,i){if(i==s.length-1){" +
+					"var k=p+s[i];put(k,GetValue(k));return;}" +
+					"var q=p+s[i],n=cnt(q);" +
+					"for(var j=0;j<n;j++)walk(q+\".\"+j+\".\",s,i+1);}" +
+				"for(var i=0;i<t.length;i++)walk(\"\",t[i].split(\".n.\"),0);" +
+				"return r.join(\"\");})();");
+		String r = read(b);
+		try {
+			int pos = 0;
+			while (pos < r.length()) {
+				int colon = r.indexOf(':', pos);
+				int end = colon + 1 + Integer.parseInt(r.substring(pos, colon));
+				String k = r.substring(colon + 1, end);
+				colon = r.indexOf(':', end);
+				pos = colon + 1 + Integer.parseInt(r.substring(end, colon));
+				m.put(k, r.substring(colon + 1, pos));
+			}
+		} catch (RuntimeException e) {
+			throw new ScormDataAccessException(this, e);
+		}
+		return m;
+	}
+
+	/** Write a value of the data model.
+	 * 
+	 * @param key  data model element
+	 * @param value  the new value
+	 * @return <code>true</code> iff the LMS reports success
+	 * @throws ScormDataAccessException the connection to the LMS failed
+	 */
+	public synchronized boolean setValue(String key, String value) throws ScormDataAccessException {
+		StringBuilder b = beginCall();
+		b.append("SetValue(");
+		appendLiteral(key, b);
+		b.append(',');
+		appendLiteral(value, b);
+		b.append(')');
+		return call(b);
+	}
+
+	/** Write a sequence of values with a single crossing of the
+	 *  JavaScript bridge.
+	 * 
+	 * @param keys  data model elements
+	 * @param values  the new values (same order as the keys)
+	 * @return the index of the first rejected value or <code>-1</code>
+	 *          if all values have been written
+	 * @throws ScormDataAccessException the connection to the LMS failed
+	 */
+	public synchronized int setValues(List<String> keys, List<String> values) throws ScormDataAccessException {
+		int n = keys.size();
+		if (n == 0)
+			return -1;
+		if (n == 1)
+			return setValue(keys.get(0), values.get(0)) ? -1 : 0;
+		StringBuilder b = script();
+		b.append("(function(){var k=[");
+		for (int i=0; i<n; i++) {
+			if (i > 0)
+				b.append(',');
+			appendLiteral(keys.get(i), b);
+		}
+		b.append("],v=[");
+		for (int i=0; i<n; i++) {
+			if (i > 0)
+				b.append(',');
+			appendLiteral(values.get(i), b);
+		}
+		b.append("];for(var i=0;i<k.length;i++){" +
+				"if(String(SetValue(k[i],v[i]))!=\"true\")" +
+					"return i+\":\"+GetLastError(\"\");}" +
+				"return \"-1\";})();");
+		String r = eval(b.toString());
+		int colon = r.indexOf(':');
+		try {
+			if (colon < 0) {
+				lastError = "0";
+				return Integer.parseInt(r);
+			}
+			lastError = r.substring(colon + 1);
+			return Integer.parseInt(r.substring(0, colon));
+		} catch (NumberFormatException e) {
+			lastError = null;
+			throw new ScormDataAccessException(this, e);
+		}
+	}
+
+	/** Get the error code of the last API call. The bridge is only
+	 *  crossed if the code has not been returned by the call itself.
+	 * 
+	 * @return SCORM error code
+	 * @throws ScormDataAccessException the connection to the LMS failed
+	 */
+	public synchronized String getLastError() throws ScormDataAccessException {
+		if (lastError == null)
+			lastError = eval("GetLastError(\"\");");
+		return lastError;
+	}
+
+	/** Get the textual description of an error code.
+	 * 
+	 * @param code  SCORM error code
+	 * @return error description
+	 * @throws ScormDataAccessException the connection to the LMS failed
+	 */
+	public String getErrorString(String code) throws ScormDataAccessException {
+		return eval("GetErrorString(\"" + code + "\");");
+	}
+
+	/** Get LMS specific details of an error code.
+	 * 
+	 * @param code  SCORM error code
+	 * @return LMS specific error details
+	 * @throws ScormDataAccessException the connection to the LMS failed
+	 */
+	public String getDiagnostic(String code) throws ScormDataAccessException {
+		return eval("GetDiagnostic(\"" + code + "\");");
+	}
+
+	/** Start a new script in the reused buffer. The caller has to
+	 *  hold the lock of this transport until the script is evaluated.
+	 * 
+	 * @return the empty buffer
+	 */
+	private StringBuilder script() {
+		script.setLength(0);
+		if (script.capacity() > MAX_SCRIPT) {
+			script.trimToSize();
+			script.ensureCapacity(256);
+		}
+		return script;
+	}
+
+	/** Start a script which calls a SCORM function returning a boolean
+	 *  value. The call of the function has to be appended before the
+	 *  script is passed to <code>call()</code>.
+	 * 
+	 * @return the buffer
+	 */
+	private StringBuilder beginCall() {
+		return script().append("(function(){var r=String(");
+	}
+
+	/** Call a SCORM function which returns a boolean value.
+	 * 
+	 * @param f  JavaScript call of the SCORM function without semicolon
+	 * @return <code>true</code> iff the LMS reports success
+	 * @throws ScormDataAccessException the connection to the LMS failed
+	 */
+	private synchronized boolean call(String f) throws ScormDataAccessException {
+		return call(beginCall().append(f));
+	}
+
+	/** Call a SCORM function which returns a boolean value. If the
+	 *  function fails then the error code is read by the same script.
+	 * 
+	 * @param b  script started by <code>beginCall()</code> including
+	 *            the call of the SCORM function
+	 * @return <code>true</code> iff the LMS reports success
+	 * @throws ScormDataAccessException the connection to the LMS failed
+	 */
+	private synchronized boolean call(StringBuilder b) throws ScormDataAccessException {
+		b.append(");return r==\"true\"?r:r+\":\"+GetLastError(\"\");})();");
+		String r = eval(b.toString());
+		if ("true".equals(r)) {
+			lastError = "0";
+			return true;
+		}
+		int colon = r.lastIndexOf(':');
+		lastError = colon < 0 ? null : r.substring(colon + 1);
+		return false;
+	}
+
+	/** Evaluate a script which reads values. Reads do not report their
+	 *  error code, so it is asked for on demand.
+	 * 
+	 * @param c  JavaScript code
+	 * @return the result converted to a <code>String</code>
+	 * @throws ScormDataAccessException the evaluation failed
+	 */
+	private synchronized String read(CharSequence c) throws ScormDataAccessException {
+		lastError = null;
+		return eval(c.toString());
+	}
+
+	/** Evaluate a JavaScript snippet in the context of the SCORM API
+	 *  instance. The calls of different threads are serialized.
+	 * 
+	 * @param c  JavaScript code
+	 * @return the result converted to a <code>String</code>
+	 * @throws ScormDataAccessException the evaluation failed
+	 */
+	synchronized String eval(String c) throws ScormDataAccessException {
+		try {
+			Object r = scorm.eval(c);
+			return r == null ? "" : r.toString();
+		} catch (JSException e) {
+			lastError = null;
+			throw new ScormDataAccessException(this, e);
+		}
+	}
+
+	/** Append a JavaScript string literal to a <code>StringBuilder</code>.
+	 *  Quotes, backslashes and line breaks are escaped.
+	 * 
+	 * @param s  the <code>String</code> to encode
+	 * @param b  the target buffer
+	 */
+	static void appendLiteral(String s, StringBuilder b) {
+		b.append('"');
+		for (int i=0, n=s.length(); i<n; i++) {
+			char c = s.charAt(i);
+			switch (c) {
+			case '"':
+			case '\\':
+				b.append('\\').append(c);
+				break;
+			case '\n':
+				b.append("\\n");
+				break;
+			case '\r':
+				b.append("\\r");
+				break;
+			case '\u2028':
+				b.append("\\u2028");
+				break;
+			case '\u2029':
+				b.append("\\u2029");
+				break;
+			default:
+				b.append(c);
+			}
+		}
+		b.append('"');
+	}
+
+}
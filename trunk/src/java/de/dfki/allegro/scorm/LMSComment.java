@@ -45,7 +45,7 @@ public class LMSComment extends ScormElement {
 	 */
 	public LocalizedString getComment() {
 		return new LocalizedString(
-				ScormAdapter.adapter.getScormCharValue(key + "comment"));
+				ScormAdapter.adapter.getScormCharValue(key("comment")));
 	}
 
 	/** Get the location in the LMS at which the
@@ -55,7 +55,7 @@ public class LMSComment extends ScormElement {
 	 * @return location at which the comment has been entered
 	 */
 	public String getLocation() {
-		return ScormAdapter.adapter.getScormCharValue(key + "location");
+		return ScormAdapter.adapter.getScormCharValue(key("location"));
 	}
 
 	/** Get the time when the comment has been entered.
@@ -66,6 +66,6 @@ public class LMSComment extends ScormElement {
 	 *                                                              any value
 	 */
 	public Date getTimestamp() throws ScormEmptyAttributeException {
-		return ScormAdapter.adapter.getScormTimestamp(key + "timestamp");
+		return ScormAdapter.adapter.getScormTimestamp(key("timestamp"));
 	}
 }
@@ -17,6 +17,7 @@ package de.dfki.allegro.scorm;
 
 
 import java.util.AbstractList;
+import java.util.Iterator;
 
 import de.dfki.allegro.scorm.token.LMSCapability;
 
@@ -34,6 +35,10 @@ import de.dfki.allegro.scorm.token.LMSCapability;
  */
 public class LMSComments extends AbstractList<LMSComment> {
 
+	/** Access keys of the comments.*/
+	private static final ElementKeys KEYS =
+		ElementKeys.of("cmi.comments_from_lms.");
+
 	
 	/** Ctor.
 	 * 
@@ -50,7 +55,7 @@ public class LMSComments extends AbstractList<LMSComment> {
 	 */
 	public LMSComment get(int i) {
 		try {
-			return new LMSComment("cmi.comments_from_lms." + i);
+			return new LMSComment(KEYS.index(i));
 		} catch (ScormDataAccessException e) {
 			if (e.getErrorCode() == 301)
 				throw new IndexOutOfBoundsException("The collection holds " +
@@ -60,6 +65,23 @@ public class LMSComments extends AbstractList<LMSComment> {
 		}
 	}
 
+	/** Get an iterator over all comments which reads the comments in
+	 *  pages. While the comments of a page are processed, the next page
+	 *  is read in the background.
+	 * 
+	 * @param pageSize  number of comments per page
+	 * @return comment iterator
+	 * @see de.dfki.allegro.scorm.ScormAdapter#setCaching(boolean)
+	 */
+	public Iterator<LMSComment> prefetchingIterator(int pageSize) {
+		return new PrefetchingIterator<LMSComment>("cmi.comments_from_lms",
+				new String[] {"comment", "location", "timestamp"}, pageSize) {
+			protected LMSComment create(int i) {
+				return new LMSComment(KEYS.index(i));
+			}
+		};
+	}
+
 	/** Get the number of elements.
 	 *  
 	 *  @return number of elements of the set 
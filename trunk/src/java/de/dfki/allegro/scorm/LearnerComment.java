@@ -55,7 +55,7 @@ public class LearnerComment extends ScormElement {
 		this(k + i);
 		// create a new empty comment to ensure that the given
 		// index is valid after this constructor call
-		ScormAdapter.adapter.setScormCharValue(key + "comment", "");
+		ScormAdapter.adapter.setScormCharValue(key("comment"), "");
 	}
 
 	
@@ -67,7 +67,7 @@ public class LearnerComment extends ScormElement {
 	public LocalizedString getComment() {
 		return new LocalizedString(
 				ScormAdapter.adapter.getScormCharValue(
-						key + "comment"));
+						key("comment")));
 	}
 
 	/** Set the student's comment.
@@ -77,8 +77,9 @@ public class LearnerComment extends ScormElement {
 	 */
 	@ScormSizeLimit(4000)
 	public void setComment(LocalizedString c) {
-		ScormAdapter.adapter.setScormCharValue(
-				key + "comment", c.toString());
+		LearnerCommentConstraints.setComment(c);
+		ScormAdapter.adapter.setScormValue(
+				key("comment"), c);
 	}
 
 	
@@ -89,7 +90,7 @@ public class LearnerComment extends ScormElement {
 	 * @return location at which the comment has been entered
 	 */
 	public String getLocation() {
-		return ScormAdapter.adapter.getScormCharValue(key + "location");
+		return ScormAdapter.adapter.getScormCharValue(key("location"));
 	}
 
 	/** Set the location in the LMS at which the student
@@ -100,7 +101,8 @@ public class LearnerComment extends ScormElement {
 	 */
 	@ScormSizeLimit(250)
 	public void setLocation(String l) {
-		ScormAdapter.adapter.setScormCharValue(key + "location", l.toString());
+		LearnerCommentConstraints.setLocation(l);
+		ScormAdapter.adapter.setScormCharValue(key("location"), l.toString());
 	}
 
 	
@@ -111,7 +113,7 @@ public class LearnerComment extends ScormElement {
 	 *                                       not yet been set
 	 */
 	public Date getTimestamp() throws ScormEmptyAttributeException {
-		return ScormAdapter.adapter.getScormTimestamp(key + "timestamp");
+		return ScormAdapter.adapter.getScormTimestamp(key("timestamp"));
 	}
 
 	/** Replace the <code>Date</code> by a new one.  This is
@@ -128,7 +130,7 @@ public class LearnerComment extends ScormElement {
 	 * @see de.dfki.allegro.scorm.ScormAdapter#terminate()
 	 */
 	public void setTimestamp(Date d) throws UnsupportedOperationException {
-		ScormAdapter.adapter.setScormTimestamp(key + "timestamp", d);
+		ScormAdapter.adapter.setScormTimestamp(key("timestamp"), d);
 	}
 
 	/** Replace the <code>Date</code> by the actual date and time.  This is
@@ -17,6 +17,7 @@ package de.dfki.allegro.scorm;
 
 
 import java.util.AbstractList;
+import java.util.Iterator;
 
 import de.dfki.allegro.scorm.annotation.ScormSizeLimit;
 import de.dfki.allegro.scorm.token.LMSCapability;
@@ -36,6 +37,10 @@ import de.dfki.allegro.scorm.token.LMSCapability;
  */
 public class LearnerComments extends AbstractList<LearnerComment> {
 
+	/** Access keys of the comments.*/
+	private static final ElementKeys KEYS =
+		ElementKeys.of("cmi.comments_from_learner.");
+
 	
 	/** Ctor.
 	 * 
@@ -52,7 +57,7 @@ public class LearnerComments extends AbstractList<LearnerComment> {
 	 */
 	public LearnerComment get(int i) {
 		try {
-			return new LearnerComment("cmi.comments_from_learner." + i);
+			return new LearnerComment(KEYS.index(i));
 		} catch (ScormDataAccessException e) {
 			if (e.getErrorCode() == 301)
 				throw new IndexOutOfBoundsException("The collection holds " +
@@ -62,6 +67,23 @@ public class LearnerComments extends AbstractList<LearnerComment> {
 		}
 	}
 
+	/** Get an iterator over all comments which reads the comments in
+	 *  pages. While the comments of a page are processed, the next page
+	 *  is read in the background.
+	 * 
+	 * @param pageSize  number of comments per page
+	 * @return comment iterator
+	 * @see de.dfki.allegro.scorm.ScormAdapter#setCaching(boolean)
+	 */
+	public Iterator<LearnerComment> prefetchingIterator(int pageSize) {
+		return new PrefetchingIterator<LearnerComment>("cmi.comments_from_learner",
+				new String[] {"comment", "location", "timestamp"}, pageSize) {
+			protected LearnerComment create(int i) {
+				return new LearnerComment(KEYS.index(i));
+			}
+		};
+	}
+
 	/** Get the number of elements.
 	 *  
 	 *  @return number of elements of the set 
@@ -80,8 +102,9 @@ public class LearnerComments extends AbstractList<LearnerComment> {
 	 */
 	@ScormSizeLimit(250)
 	public synchronized LearnerComment createLearnerComment() {
-		LearnerComment lc = new LearnerComment("cmi.comments_from_learner.", size());
-		return lc;
+		int n = size();
+		LearnerCommentsConstraints.createLearnerComment(n);
+		return new LearnerComment("cmi.comments_from_learner.", n);
 	}
 
 
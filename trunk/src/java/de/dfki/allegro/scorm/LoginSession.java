@@ -17,6 +17,10 @@ package de.dfki.allegro.scorm;
 
 
 import java.io.Serializable;
+import java.util.concurrent.Future;
+
+import de.dfki.allegro.scorm.util.Trace;
+import de.dfki.allegro.scorm.util.Trace.Level;
 
 
 
@@ -35,19 +39,84 @@ public class LoginSession implements Serializable {
 	/** Serial version id.*/
 	private static final long serialVersionUID = 1L;
 
+	/** If this flag is <code>true</code> then the data model is read
+	 *  at once when the communication session is initialized.
+	 */
+	private boolean prefetchSnapshot = false;
+	
+	/** Merges the commit requests or <code>null</code> to commit
+	 *  immediately.
+	 */
+	private transient CommitScheduler commitScheduler;
+	
+
 	/** Ctor.
 	 * 
 	 */
 	LoginSession() {
 	}
 	
+	/** Activate or deactivate the prefetching of the data model.
+	 *  If activated, <code>initializeCommunicationSession()</code>
+	 *  reads the whole data model (learner, state, time, score, all
+	 *  objectives, interactions and comments) with one call. The
+	 *  following reads are answered by the cache of the
+	 *  <code>ScormAdapter</code>. This pays off if a SCO reads most
+	 *  of its data at the beginning. The default is not to prefetch.
+	 *  
+	 * @param f  <code>true</code> to prefetch the data model
+	 * @see de.dfki.allegro.scorm.ScormAdapter#setCaching(boolean)
+	 */
+	public void setPrefetchSnapshot(boolean f) {
+		prefetchSnapshot = f;
+	}
+	
+	/** Attach a scheduler which merges commit requests. While a
+	 *  scheduler is attached <code>commitCommunicationSession()</code>
+	 *  only requests a commit which the scheduler executes later.
+	 *  Pending commits are executed before the communication session
+	 *  is terminated and when the attempt is suspended.
+	 *  
+	 * @param s  the scheduler or <code>null</code> to commit immediately
+	 * @throws ScormDataAccessException  executing the pending commit of
+	 *                                    the former scheduler failed
+	 */
+	public void setCommitScheduler(CommitScheduler s) throws ScormDataAccessException {
+		if (commitScheduler != null)
+			commitScheduler.flush();
+		commitScheduler = s;
+	}
+	
+	/** Get the scheduler which merges commit requests.
+	 * 
+	 * @return the scheduler or <code>null</code> if commits are
+	 *          executed immediately
+	 */
+	public CommitScheduler getCommitScheduler() {
+		return commitScheduler;
+	}
+	
+	/** Execute a pending commit of the commit scheduler (if any).
+	 * 
+	 * @param force  <code>true</code> to commit even if no commit
+	 *                has been requested
+	 * @throws ScormDataAccessException  persisting the actual data failed
+	 */
+	void flushCommits(boolean force) throws ScormDataAccessException {
+		if (commitScheduler == null)
+			return;
+		if (force)
+			commitScheduler.requestCommit();
+		commitScheduler.flush();
+	}
+	
 	/** Initialize communication session.
 	 * 
 	 * @throws ScormDataAccessException  establishing the connection failed
 	 */
 	public void initializeCommunicationSession() throws ScormDataAccessException {
 		try {
-			ScormAdapter.adapter.callBooleanScormFunction("Initialize(\"\");");
+			ScormAdapter.adapter.initialize();
 		} catch (ScormDataAccessException e) {
 			if (e.getErrorCode() == 103) {
 				String error = "Initialize(\"\") already called!";
@@ -55,11 +124,13 @@ public class LoginSession implements Serializable {
 					throw e;
 				} else {
 					// some LMS, for example Ilias, automatically call Initialize("")
-					System.out.println("Warning: " + error);
+					Trace.log(Level.WARN, "Initialize", null, error);
 				}
 			} else
 				throw e;
 		}
+		if (prefetchSnapshot)
+			ScormAdapter.adapter.loadSnapshot();
 		ScormAdapter.initCapabilities();
 	}
 
@@ -71,17 +142,39 @@ public class LoginSession implements Serializable {
 	 * @see de.dfki.allegro.scorm.ScormAdapter#commit
 	 */
 	public void terminateCommunicationSession() throws ScormDataAccessException {
-		ScormAdapter.adapter.callBooleanScormFunction("Terminate(\"\");");
+		flushCommits(false);
+		ScormAdapter.adapter.terminate();
 	}
 
 	/** Persist any data that changed since the last call of this
-	 *  method or the last call of <code>initialize</code>.
+	 *  method or the last call of <code>initialize</code>. If a
+	 *  commit scheduler is attached then the commit is only requested.
 	 * 
 	 * @throws ScormDataAccessException  persisting the actual data failed
 	 * @see de.dfki.allegro.scorm.ScormAdapter#initialize()
+	 * @see #setCommitScheduler(CommitScheduler)
 	 */
 	public void commitCommunicationSession() throws ScormDataAccessException {
-		ScormAdapter.adapter.callBooleanScormFunction("Commit(\"\");");
+		if (commitScheduler != null)
+			commitScheduler.requestCommit();
+		else
+			ScormAdapter.adapter.commit();
+	}
+
+	/** Persist any data that changed since the last commit without
+	 *  waiting for the LMS. The commit is executed in the background.
+	 *  While a commit is waiting for execution further requests share
+	 *  this commit. <code>terminateCommunicationSession()</code> waits
+	 *  for the outstanding commit.
+	 * 
+	 * @return future which completes when the data has been persisted;
+	 *          <code>get()</code> throws an <code>ExecutionException</code>
+	 *          wrapping a <code>ScormDataAccessException</code> if
+	 *          persisting the data failed
+	 * @see #commitCommunicationSession()
+	 */
+	public Future<Void> commitCommunicationSessionAsync() {
+		return ScormAdapter.adapter.commitAsync();
 	}
 	
 	
@@ -16,6 +16,8 @@
 package de.dfki.allegro.scorm;
 
 
+import java.util.Arrays;
+
 import de.dfki.allegro.scorm.annotation.ScormSizeLimit;
 import de.dfki.allegro.scorm.util.LocalizedString;
 
@@ -55,6 +57,21 @@ public class Objective extends BasicObjective {
 	}
 
 
+	/** Read all attributes of the objective from the LMS at once.
+	 *  The following reads of the attributes are answered by the
+	 *  cache of the <code>ScormAdapter</code>, so this method saves
+	 *  round trips if most of the attributes are needed.
+	 * 
+	 * @see de.dfki.allegro.scorm.ScormAdapter#setCaching(boolean)
+	 */
+	public void prefetch() {
+		ScormAdapter.adapter.prefetch(Arrays.asList(key("id"),
+				key("score.scaled"), key("score.raw"), key("score.min"),
+				key("score.max"), key("success_status"),
+				key("completion_status"), key("progress_measure"),
+				key("description")));
+	}
+
 	/** Get the description
 	 *  SCORM 2004 4th edition limits the length to 250 characters.
 	 * 
@@ -63,7 +80,7 @@ public class Objective extends BasicObjective {
 	public LocalizedString getDescription() {
 		return new LocalizedString(
 				ScormAdapter.adapter.getScormCharValue(
-						key + "description"));
+						key("description")));
 	}
 
 	/** Set the description
@@ -73,8 +90,9 @@ public class Objective extends BasicObjective {
 	 */
 	@ScormSizeLimit(250)
 	public void setDescription(LocalizedString d) {
-		ScormAdapter.adapter.setScormCharValue(
-				key + "description", d.toString());
+		ObjectiveConstraints.setDescription(d);
+		ScormAdapter.adapter.setScormValue(
+				key("description"), d);
 	}
 
 }
@@ -62,8 +62,9 @@ public class ObjectiveId extends ScormElement {
 	@ScormIdentifier
 	@ScormSizeLimit(4000)
 	void setId(String c) {
+		ObjectiveIdConstraints.setId(c);
 		ScormAdapter.adapter.setScormCharValue(
-				key + "id", c.toString());
+				key("id"), c.toString());
 	}
 
 	/** Get the id of the objective. The id represents a URI.
@@ -72,7 +73,7 @@ public class ObjectiveId extends ScormElement {
 	 * @return the objective id
 	 */
 	public String getId() {
-		return ScormAdapter.adapter.getScormCharValue(key + "id");
+		return ScormAdapter.adapter.getScormCharValue(key("id"));
 	}
 
 }
@@ -18,6 +18,7 @@ package de.dfki.allegro.scorm;
 
 import java.util.AbstractMap;
 import java.util.AbstractSet;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
@@ -25,14 +26,27 @@ import java.util.Set;
 import de.dfki.allegro.scorm.annotation.ScormSizeLimit;
 
 /** Set of objective ids.
+ * 
+ *  Looking up an objective id (<code>get()</code> and
+ *  <code>containsKey()</code>) uses an index of all ids of the
+ *  collection. The index is shared by all instances for the same
+ *  collection, read on first use in a communication session and kept
+ *  up to date by <code>createObjectiveId()</code>.
  * 
  * @author Timo Scheuer
  *
  */
 public class ObjectiveIds extends AbstractMap<String, ObjectiveId> {
 
+	/** Indices of the collections by SCORM access key.*/
+	private static final Map<String, IdIndex> INDICES = new HashMap<String, IdIndex>();
+
 	/** SCORM access key.*/
 	private String key;
+	/** Precomputed access keys of the objective ids.*/
+	private ElementKeys keys;
+	/** Index of the ids of this collection.*/
+	private IdIndex index;
 	
 	/** The internal map data represented as a set.*/
 	private Set<Map.Entry<String, ObjectiveId>> objectiveIdSet =
@@ -47,6 +61,8 @@ public class ObjectiveIds extends AbstractMap<String, ObjectiveId> {
 			return new Iterator<Map.Entry<String, ObjectiveId>>() {
 				/** The actual iterator position.*/
 				private int position = 0;
+				/** Number of elements, read once per iteration.*/
+				private final int count = size();
 				
 				/** Returns <code>true</code> iff there is another
 				 *  element.
@@ -54,7 +70,7 @@ public class ObjectiveIds extends AbstractMap<String, ObjectiveId> {
 				 *  @return <code>true</code> iff there is a successor
 				 */
 				public boolean hasNext() {
-					return position<size();
+					return position<count;
 				}
 
 				/** Get the next element.
@@ -63,7 +79,7 @@ public class ObjectiveIds extends AbstractMap<String, ObjectiveId> {
 				 */
 				public Map.Entry<String, ObjectiveId> next() {
 					return	new Map.Entry<String, ObjectiveId> () {
-						private ObjectiveId oid = new ObjectiveId (key + position++);
+						private ObjectiveId oid = new ObjectiveId (keys.index(position++));
 						
 						/** Get the entry key
 						 * 
@@ -106,7 +122,7 @@ public class ObjectiveIds extends AbstractMap<String, ObjectiveId> {
 		 *  @return number of elements of the set 
 		 */
 		public int size() {
-			return Integer.parseInt(ScormAdapter.adapter.getScormCharValue(key + "_count"));
+			return Integer.parseInt(ScormAdapter.adapter.getScormCharValue(keys.get("_count")));
 		}
 	};
 	
@@ -116,6 +132,34 @@ public class ObjectiveIds extends AbstractMap<String, ObjectiveId> {
 	 */
 	ObjectiveIds(String k) {
 		key = k + ".";
+		keys = ElementKeys.of(key);
+		synchronized (INDICES) {
+			index = INDICES.get(k);
+			if (index == null) {
+				index = new IdIndex(k, null);
+				INDICES.put(k, index);
+			}
+		}
+	}
+
+	/** Get the objective id with a given id.
+	 * 
+	 * @param id  the id
+	 * @return the objective id or <code>null</code> if the collection
+	 *          does not contain this id
+	 */
+	public ObjectiveId get(Object id) {
+		int i = index.indexOf(id);
+		return i < 0 ? null : new ObjectiveId(keys.index(i));
+	}
+
+	/** Check if the collection contains an id.
+	 * 
+	 * @param id  the id
+	 * @return <code>true</code> iff the collection contains the id
+	 */
+	public boolean containsKey(Object id) {
+		return index.indexOf(id) >= 0;
 	}
 
 	/** Get the objective id iterator.
@@ -126,6 +170,8 @@ public class ObjectiveIds extends AbstractMap<String, ObjectiveId> {
 		return new Iterator<ObjectiveId>() {
 			/** The actual iterator position.*/
 			private int position = 0;
+			/** Number of elements, read once per iteration.*/
+			private final int count = size();
 			
 			/** Returns <code>true</code> iff there is another
 			 *  element.
@@ -133,7 +179,7 @@ public class ObjectiveIds extends AbstractMap<String, ObjectiveId> {
 			 *  @return <code>true</code> iff there is a successor
 			 */
 			public boolean hasNext() {
-				return position<size();
+				return position<count;
 			}
 
 			/** Get the next element.
@@ -141,7 +187,7 @@ public class ObjectiveIds extends AbstractMap<String, ObjectiveId> {
 			 * @return the next element
 			 */
 			public ObjectiveId next() {
-				return	new ObjectiveId (key + position++);
+				return	new ObjectiveId (keys.index(position++));
 			}
 
 			/** The remove operation is not supported.
@@ -162,7 +208,11 @@ public class ObjectiveIds extends AbstractMap<String, ObjectiveId> {
 	 */
 	@ScormSizeLimit(10)
 	public synchronized ObjectiveId createObjectiveId(String i) {
-		return new ObjectiveId(key + size(), i);
+		int n = size();
+		ObjectiveIdsConstraints.createObjectiveId(n);
+		ObjectiveId o = new ObjectiveId(keys.index(n), i);
+		index.add(i, n, null);
+		return o;
 	}
 
 	/** Get a set view of the map.
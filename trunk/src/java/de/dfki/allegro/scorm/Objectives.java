@@ -39,6 +39,11 @@ import de.dfki.allegro.scorm.token.LMSCapability;
  *  that modifying this object. New <code>Objective</code>s
  *  are created by using the method <code>createObjective()</code>.
  *  
+ *  Looking up an objective by id (<code>get()</code> and
+ *  <code>containsKey()</code>) uses an index of the ids of all
+ *  objectives. The index is read on first use in a communication
+ *  session and kept up to date by <code>createObjective()</code>.
+ *  
  *  SCORM 2004 4th edition limits the numbers of entries to 100.
  *  
  * @author Timo Scheuer
@@ -46,6 +51,9 @@ import de.dfki.allegro.scorm.token.LMSCapability;
  */
 public class Objectives extends AbstractMap<String, Objective> {
 
+	/** Access keys of the objectives.*/
+	private static final ElementKeys KEYS = ElementKeys.of("cmi.objectives.");
+
 	
 	/** The internal map data represented as a set.*/
 	private Set<Map.Entry<String, Objective>> objectiveSet =
@@ -60,6 +68,8 @@ public class Objectives extends AbstractMap<String, Objective> {
 			return new Iterator<Map.Entry<String, Objective>>() {
 				/** The actual iterator position.*/
 				private int position = 0;
+				/** Number of elements, read once per iteration.*/
+				private final int count = size();
 				
 				/** Returns <code>true</code> iff there is another
 				 *  element.
@@ -67,7 +77,7 @@ public class Objectives extends AbstractMap<String, Objective> {
 				 *  @return <code>true</code> iff there is a successor
 				 */
 				public boolean hasNext() {
-					return position<size();
+					return position<count;
 				}
 
 				/** Get the next element.
@@ -77,7 +87,7 @@ public class Objectives extends AbstractMap<String, Objective> {
 				public Map.Entry<String, Objective> next() {
 					return new Map.Entry<String, Objective>() {
 						private Objective objective =
-							new Objective("cmi.objectives." + position++);
+							handles.get(position++);
 
 						/** Get the entry key
 						 * 
@@ -126,12 +136,42 @@ public class Objectives extends AbstractMap<String, Objective> {
 		}
 	};
 	
+	/** Index of the objective ids.*/
+	private final IdIndex index = new IdIndex("cmi.objectives", null);
+	/** One objective object per index.*/
+	private final ElementHandles<Objective> handles =
+		new ElementHandles<Objective>() {
+		protected Objective create(int i) {
+			return new Objective(KEYS.index(i));
+		}
+	};
+	
 	
 	/** Ctor.
 	 * 
 	 */
 	Objectives() {
 	}
+
+	/** Get the objective with a given id.
+	 * 
+	 * @param id  the objective id
+	 * @return the objective or <code>null</code> if there is no
+	 *          objective with this id
+	 */
+	public Objective get(Object id) {
+		int i = index.indexOf(id);
+		return i < 0 ? null : handles.get(i);
+	}
+
+	/** Check if there is an objective with a given id.
+	 * 
+	 * @param id  the objective id
+	 * @return <code>true</code> iff there is an objective with this id
+	 */
+	public boolean containsKey(Object id) {
+		return index.indexOf(id) >= 0;
+	}
 	
 	/** Get a set view of the map.
 	 * 
@@ -141,6 +181,25 @@ public class Objectives extends AbstractMap<String, Objective> {
 		return objectiveSet;
 	}
 
+	/** Get an iterator over all objectives which reads the data of
+	 *  the objectives in pages. While the objectives of a page are
+	 *  processed, the next page is read in the background.
+	 * 
+	 * @param pageSize  number of objectives per page
+	 * @return objective iterator
+	 * @see de.dfki.allegro.scorm.ScormAdapter#setCaching(boolean)
+	 */
+	public Iterator<Objective> prefetchingIterator(int pageSize) {
+		return new PrefetchingIterator<Objective>("cmi.objectives",
+				new String[] {"id", "score.scaled", "score.raw", "score.min",
+				"score.max", "success_status", "completion_status",
+				"progress_measure", "description"}, pageSize) {
+			protected Objective create(int i) {
+				return handles.get(i);
+			}
+		};
+	}
+
 	/** Create a new <code>Objective</code> with a given key
 	 *  (id). It is automatically added to the map of all
 	 *  objectives.
@@ -153,7 +212,12 @@ public class Objectives extends AbstractMap<String, Objective> {
 	 */
 	@ScormSizeLimit(100)
 	public synchronized Objective createObjective(String k) {
-		return new Objective("cmi.objectives." + objectiveSet.size(), k);
+		int i = objectiveSet.size();
+		ObjectivesConstraints.createObjective(i);
+		Objective o = new Objective(KEYS.index(i), k);
+		index.add(k, i, null);
+		handles.put(i, o);
+		return o;
 	}
 
 	/** Check if the LMS supports objective ids.
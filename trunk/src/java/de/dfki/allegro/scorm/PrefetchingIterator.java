@@ -0,0 +1,191 @@
+/** Copyright 2010 Timo Scheuer
+ * 
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.dfki.allegro.scorm;
+
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+
+
+/** Iterator over a SCORM collection which reads the elements in
+ *  pages. The values of a page are read with a single bulk read into
+ *  the cache of the <code>ScormAdapter</code>, so the getters of the
+ *  returned elements do not call the LMS. While the elements of a
+ *  page are processed, the next page is read by a background thread.
+ *
+ *  The number of elements is read once when the iterator is created.
+ *  Without caching the pages cannot be kept and every getter calls
+ *  the LMS as usual. If reading a page in the background fails then
+ *  the error is reported by the getters of the elements.
+ *
+ * @author Timo Scheuer
+ *
+ * @param <E>  element type
+ * @see de.dfki.allegro.scorm.ScormAdapter#setCaching(boolean)
+ */
+abstract class PrefetchingIterator<E> implements Iterator<E> {
+
+	/** Thread which reads the pages in the background.*/
+	private static ExecutorService executor;
+
+	/** SCORM access key of the collection without trailing dot.*/
+	private final String collection;
+	/** Elements to read per collection entry.*/
+	private final String[] elements;
+	/** Number of entries per page.*/
+	private final int pageSize;
+	/** Number of entries of the collection.*/
+	private final int count;
+
+	/** Position of the next entry.*/
+	private int position = 0;
+	/** Reading of the next page or <code>null</code>.*/
+	private Future<Void> nextPage;
+
+
+	/** Ctor.
+	 * 
+	 * @param c  SCORM access key of the collection, e.g.
+	 *            <code>cmi.interactions</code>
+	 * @param e  elements to read per collection entry, e.g.
+	 *            <code>id</code>
+	 * @param p  number of entries per page
+	 * @throws ScormDataAccessException an error is reported by a SCORM function
+	 */
+	PrefetchingIterator(String c, String[] e, int p) throws ScormDataAccessException {
+		if (p < 1)
+			throw new IllegalArgumentException("Page size must be positive!");
+		collection = c;
+		elements = e;
+		pageSize = p;
+		String n = ScormAdapter.adapter.getScormCharValue(c + "._count");
+		count = n.length() == 0 ? 0 : Integer.parseInt(n);
+	}
+
+	/** Create the element of a collection entry.
+	 * 
+	 * @param i  position of the entry
+	 * @return the element
+	 */
+	protected abstract E create(int i);
+
+	/** Returns <code>true</code> iff there is another
+	 *  element.
+	 * 
+	 *  @return <code>true</code> iff there is a successor
+	 */
+	public boolean hasNext() {
+		return position < count;
+	}
+
+	/** Get the next element. At the beginning of a page the reading
+	 *  of the following page is started.
+	 * 
+	 * @return the next element
+	 */
+	public E next() {
+		if (position >= count)
+			throw new NoSuchElementException();
+		if (position % pageSize == 0) {
+			if (nextPage != null)
+				await(nextPage);
+			else
+				ScormAdapter.adapter.prefetch(keys(position));
+			nextPage = position + pageSize < count ?
+					readAsync(position + pageSize) : null;
+		}
+		return create(position++);
+	}
+
+	/** The remove operation is not supported.
+	 * 
+	 */
+	public void remove() {
+		throw new UnsupportedOperationException(
+				"Removing elements is not supported!");
+	}
+
+	/** Get the keys of all elements of a page.
+	 * 
+	 * @param from  position of the first entry of the page
+	 * @return the keys
+	 */
+	private List<String> keys(int from) {
+		int to = Math.min(from + pageSize, count);
+		List<String> l = new ArrayList<String>((to - from) * elements.length);
+		for (int i=from; i<to; i++)
+			for (String e : elements)
+				l.add(collection + "." + i + "." + e);
+		return l;
+	}
+
+	/** Start reading a page in the background. The SCO may write the
+	 *  elements of the page meanwhile, such values are not cached.
+	 * 
+	 * @param from  position of the first entry of the page
+	 * @return future which reports the completion of the read
+	 */
+	private Future<Void> readAsync(int from) {
+		final List<String> k = keys(from);
+		FutureTask<Void> f = new FutureTask<Void>(new Runnable() {
+			public void run() {
+				ScormAdapter.adapter.prefetch(k);
+			}
+		}, null);
+		getExecutor().execute(f);
+		return f;
+	}
+
+	/** Wait until a page has been read. Failures are ignored, because
+	 *  the values are read again by the getters of the elements.
+	 * 
+	 * @param f  the reading of the page
+	 */
+	private static void await(Future<Void> f) {
+		try {
+			f.get();
+		} catch (ExecutionException e) {
+			// the getters report the error
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/** Get the thread which reads the pages in the background.
+	 * 
+	 * @return the executor
+	 */
+	private static synchronized ExecutorService getExecutor() {
+		if (executor == null)
+			executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+				public Thread newThread(Runnable r) {
+					Thread t = new Thread(r, "SCORM prefetch");
+					t.setDaemon(true);
+					return t;
+				}
+			});
+		return executor;
+	}
+
+}
@@ -42,8 +42,9 @@ public class Score extends ScormElement {
 	 */
 	@ScormRealRange(minValue=-1F,maxValue=1F)
 	public void setScaledScore(Float v) {
+		ScoreConstraints.setScaledScore(v);
 		ScormAdapter.adapter.setScormCharValue(
-				key + "scaled", v.toString());
+				key("scaled"), v.toString());
 	}
 
 	/** Get the scaled score that reflects the performance of the
@@ -55,7 +56,7 @@ public class Score extends ScormElement {
 	 *          the raw score has not bean set before this access 
 	 */
 	public float getScaledScore() throws ScormEmptyAttributeException {
-		return ScormAdapter.adapter.getScormFloat(key + "scaled");
+		return ScormAdapter.adapter.getScormFloat(key("scaled"));
 	}
 
 	/** Set the raw score that reflects the performance of the
@@ -66,7 +67,7 @@ public class Score extends ScormElement {
 	 */
 	public void setRawScore(Float v) {
 		ScormAdapter.adapter.setScormCharValue(
-				key + "raw", v.toString());
+				key("raw"), v.toString());
 	}
 
 	/** Get the raw score that reflects the performance of the
@@ -78,7 +79,7 @@ public class Score extends ScormElement {
 	 *          the raw score has not bean set before this access 
 	 */
 	public float getRawScore() throws ScormEmptyAttributeException {
-		return ScormAdapter.adapter.getScormFloat(key + "raw");
+		return ScormAdapter.adapter.getScormFloat(key("raw"));
 	}
 
 	/** Set the minimum limit for the raw score.
@@ -87,7 +88,7 @@ public class Score extends ScormElement {
 	 */
 	public void setMinimumRawScoreLimit(Float v) {
 		ScormAdapter.adapter.setScormCharValue(
-				key + "min", v.toString());
+				key("min"), v.toString());
 	}
 
 	/** Get the minimum limit of the raw score. 
@@ -97,7 +98,7 @@ public class Score extends ScormElement {
 	 *          the raw score has not bean set before this access 
 	 */
 	public float getMinimumRawScoreLimit() throws ScormEmptyAttributeException {
-		return ScormAdapter.adapter.getScormFloat(key + "min");
+		return ScormAdapter.adapter.getScormFloat(key("min"));
 	}
 
 	/** Set the maximum limit for the raw score.
@@ -106,7 +107,7 @@ public class Score extends ScormElement {
 	 */
 	public void setMaximumRawScoreLimit(Float v) {
 		ScormAdapter.adapter.setScormCharValue(
-				key + "max", v.toString());
+				key("max"), v.toString());
 	}
 
 	/** Get the maximum limit of the raw score. 
@@ -116,7 +117,7 @@ public class Score extends ScormElement {
 	 *          the raw score has not bean set before this access 
 	 */
 	public float getMaximumRawScoreLimit() throws ScormEmptyAttributeException {
-		return ScormAdapter.adapter.getScormFloat(key + "max");
+		return ScormAdapter.adapter.getScormFloat(key("max"));
 	}
 
 	/** Check if the LMS supports a scaled score.
@@ -18,20 +18,38 @@ package de.dfki.allegro.scorm;
 
 import java.applet.Applet;
 import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.BitSet;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
 
 import de.dfki.allegro.scorm.token.LMSCapability;
-import de.dfki.allegro.scorm.util.ScormDateFormat;
+import de.dfki.allegro.scorm.util.ScormEncodable;
+import de.dfki.allegro.scorm.util.ScormEncoding;
+import de.dfki.allegro.scorm.util.ScormTimestamp;
 import de.dfki.allegro.scorm.util.TimeInterval;
-
-import netscape.javascript.JSException;
-import netscape.javascript.JSObject;
+import de.dfki.allegro.scorm.util.Trace;
+import de.dfki.allegro.scorm.util.Trace.Level;
 
 
 /** Initiates a connection to a learning management system (LMS) via
  *  JavaScript SCORM API. This class is the base for the communication
  *  with an LMS. 
+ *  
+ *  All calls go through a <code>ScormTransport</code>. By default the
+ *  JavaScript bridge of the applet is used, but any other transport
+ *  can be chosen with <code>getInstance(ScormTransport)</code>.
  *   
  * @author Timo Scheuer
  *
@@ -41,9 +59,6 @@ public class ScormAdapter extends SingletonFactory {
 	/** Serial version id.*/
 	private static final long serialVersionUID = 1L;
 
-	/** SCORM date and time format.*/
-	private static final ScormDateFormat TIMESTAMP_FORMAT= new ScormDateFormat();
-	
 	/** Singleton instance of the SCORM adapter.*/
 	static ScormAdapter adapter;
 	
@@ -51,14 +66,53 @@ public class ScormAdapter extends SingletonFactory {
 	 *  all methods.
 	 */
 	private static BitSet capabilities;
+	
+	/** The supported methods by data model version of the LMS.*/
+	private static final Map<String, BitSet> CAPABILITIES_BY_VERSION =
+		new HashMap<String, BitSet>();
+
+	/** Buffer of each thread for encoding values.*/
+	private static final ThreadLocal<StringBuilder> ENCODING_BUFFER =
+		new ThreadLocal<StringBuilder>() {
+			protected StringBuilder initialValue() {
+				return new StringBuilder(256);
+			}
+		};
+
+	/** Encoding buffers which have grown beyond this capacity
+	 *  are not kept.
+	 */
+	private static final int MAX_ENCODING_BUFFER = 8192;
 
 	/** The Java applet this adapter is attached to.*/
 	private transient static Applet applet;
 
-	/** The connection to the JavaScript engine of the surrounding
-	 *  web page.
+	/** The connection to the LMS given by the caller. It also guards
+	 *  the calls which have to read the error code afterwards.
 	 */
-	transient JSObject scorm;
+	private final transient ScormTransport lms;
+	
+	/** The transport in use, i.e. the connection to the LMS or the
+	 *  write-behind buffer in front of it.
+	 */
+	volatile transient ScormTransport transport;
+	
+	/** Values read during the actual communication session.*/
+	final transient SessionCache cache = new SessionCache();
+	
+	/** Executes the asynchronous commits.*/
+	private transient ExecutorService commitExecutor;
+	
+	/** Asynchronous commit which has not been started yet.*/
+	private transient FutureTask<Void> queuedCommit;
+	
+	/** The last asynchronous commit.*/
+	private transient FutureTask<Void> lastCommit;
+	
+	/** If this flag is <code>true</code> then values read from the LMS
+	 *  are cached according to their cache policy.
+	 */
+	private boolean caching = true;
 	
 	/** If this flag is <code>true</code> then every standard violation
 	 *  throws an exception. Otherwise, if it is plausible, the adapter
@@ -75,189 +129,193 @@ public class ScormAdapter extends SingletonFactory {
 		if (!a.equals(applet) || adapter == null) {
 			// on multiple calls the applet can change
 			applet = a;
-			adapter = new ScormAdapter(applet);
+			adapter = new ScormAdapter(new JSObjectTransport(applet));
+		}
+		return adapter;
+	}
+	
+	/** Get the singleton instance of this class that uses a given
+	 *  transport for the communication with the LMS.
+	 * 
+	 * @param t  the connection to the LMS
+	 */
+	public static synchronized ScormAdapter getInstance(ScormTransport t) {
+		if (adapter == null || adapter.lms != t) {
+			applet = null;
+			adapter = new ScormAdapter(t);
 		}
 		return adapter;
 	}
 	
 	/** Ctor.
 	 * 
-	 * @param applet  the Java applet that wishes to communicate with
-	 *                  the LMS.
-	 */
-	private ScormAdapter(Applet applet) {
-		// get SCORM object
-		scorm = JSObject.getWindow(applet);
-		scorm = (JSObject)scorm.eval(
-		"var nFindAPITries = 0;" +
-		"var API = null;" +
-		"var maxTries = 500;" +
-		"var APIVersion = \"\";" +
-		"function ScanForAPI(win) {" +
-			"while ((win.API_1484_11 == null) && (win.parent != null)" +
-					"&& (win.parent != win)) {" +
-				"nFindAPITries++;" +
-				"if (nFindAPITries > maxTries) {" +
-					"return null;" +
-				"}" +
-				"win = win.parent;" +
-			"}" +
-			"return win.API_1484_11;" +
-		"}" +
-		"function GetAPI(win) {" +
-			"if ((win.parent != null) && (win.parent != win)) {" +
-				"API = ScanForAPI(win.parent);" +
-			"}" +
-			"if ((API == null) && (win.opener != null)) {" +
-				"API = ScanForAPI(win.opener);" +
-			"}" +
-			"if (API != null) {" +
-				"APIVersion = API.version;" +
-			"}" +
-			"return API;" +
-		"}" +
-		"GetAPI(window);"
-		);
+	 * @param t  the connection to the LMS
+	 */
+	private ScormAdapter(ScormTransport t) {
+		lms = t;
+		transport = t;
 	}
 	
 	/** Ask the LMS which optional methods are supported and cache
-	 *  this information. 
+	 *  this information. All <code>_children</code> lists are read
+	 *  at once. The result is kept per data model version, so another
+	 *  launch only needs to read <code>cmi._version</code>.
 	 * 
 	 */
 	static void initCapabilities() {
-		capabilities = new BitSet(
-				LMSCapability.NUMBER_OF_OPTIONAL_CAPABILITIES.ordinal());
-		String[] children = adapter.getScormCharValue(
-				"cmi.comments_from_learner._children").split(",");
-		for (String child : children) {
-			if ("comment".equals(child))
-				capabilities.set(LMSCapability.COMMENT_FROM_LEARNER_COMMENT.ordinal());
-			else if ("location".equals(child))
-				capabilities.set(LMSCapability.COMMENT_FROM_LEARNER_LOCATION.ordinal());
-			else if ("timestamp".equals(child))
-				capabilities.set(LMSCapability.COMMENT_FROM_LEARNER_TIMESTAMP.ordinal());
-		}
-		children = adapter.getScormCharValue(
-				"cmi.comments_from_lms._children").split(",");
-		for (String child : children) {
-			if ("comment".equals(child))
-				capabilities.set(LMSCapability.COMMENT_FROM_LMS_COMMENT.ordinal());
-			else if ("location".equals(child))
-				capabilities.set(LMSCapability.COMMENT_FROM_LMS_LOCATION.ordinal());
-			else if ("timestamp".equals(child))
-				capabilities.set(LMSCapability.COMMENT_FROM_LMS_TIMESTAMP.ordinal());
-		}
-		children = adapter.getScormCharValue(
-				"cmi.interactions._children").split(",");
-		for (String child : children) {
-			if ("id".equals(child))
-				capabilities.set(LMSCapability.INTERACTION_ID.ordinal());
-			else if ("type".equals(child))
-				capabilities.set(LMSCapability.INTERACTION_TYPE.ordinal());
-			else if ("objectives".equals(child))
-				capabilities.set(LMSCapability.INTERACTION_OBJECTIVES.ordinal());
-			else if ("timestamp".equals(child))
-				capabilities.set(LMSCapability.INTERACTION_TIMESTAMP.ordinal());
-			else if ("correct_responses".equals(child))
-				capabilities.set(LMSCapability.INTERACTION_CORRECT_RESPONSES.ordinal());
-			else if ("weighting".equals(child))
-				capabilities.set(LMSCapability.INTERACTION_WEIGHTING.ordinal());
-			else if ("learner_response".equals(child))
-				capabilities.set(LMSCapability.INTERACTION_LEARNER_RESPONSE.ordinal());
-			else if ("result".equals(child))
-				capabilities.set(LMSCapability.INTERACTION_RESULT.ordinal());
-			else if ("latency".equals(child))
-				capabilities.set(LMSCapability.INTERACTION_LATENCY.ordinal());
-			else if ("description".equals(child))
-				capabilities.set(LMSCapability.INTERACTION_DESCRIPTION.ordinal());
+		String version = adapter.cache.get("cmi._version");
+		BitSet b = null;
+		synchronized (CAPABILITIES_BY_VERSION) {
+			if (version == null && !CAPABILITIES_BY_VERSION.isEmpty())
+				version = adapter.getScormCharValue("cmi._version");
+			if (version != null)
+				b = CAPABILITIES_BY_VERSION.get(version);
 		}
-		children = adapter.getScormCharValue(
-				"cmi.learner_preference._children").split(",");
-		for (String child : children) {
-			if ("audio_level".equals(child))
-				capabilities.set(LMSCapability.PREFERENCE_AUDIO_LEVEL.ordinal());
-			else if ("language".equals(child))
-				capabilities.set(LMSCapability.PREFERENCE_LANGUAGE.ordinal());
-			else if ("delivery_speed".equals(child))
-				capabilities.set(LMSCapability.PREFERENCE_DELIVERY_SPEED.ordinal());
-			else if ("audio_captioning".equals(child))
-				capabilities.set(LMSCapability.PREFERENCE_AUDIO_CAPTIONING.ordinal());
-		}
-		children = adapter.getScormCharValue(
-				"cmi.objectives._children").split(",");
-		for (String child : children) {
-			if ("id".equals(child))
-				capabilities.set(LMSCapability.OBJECTIVES_ID.ordinal());
-			else if ("score".equals(child))
-				capabilities.set(LMSCapability.OBJECTIVES_SCORE.ordinal());
-			else if ("success_status".equals(child))
-				capabilities.set(LMSCapability.OBJECTIVES_SUCCESS_STATUS.ordinal());
-			else if ("completion_status".equals(child))
-				capabilities.set(LMSCapability.OBJECTIVES_COMPLETION_STATUS.ordinal());
-			else if ("progress_measure".equals(child))
-				capabilities.set(LMSCapability.OBJECTIVES_PROGRESS_MEASURE.ordinal());
-			else if ("description".equals(child))
-				capabilities.set(LMSCapability.OBJECTIVES_DESCRIPTION.ordinal());
-		}
-		// reference to the first element with index 0 to check availability for the
-		// minimum amount of possible entries
-		// an LMS may have implemented this (by using the index 0) as a constant lookup
-		children = adapter.getScormCharValue(
-				"cmi.objectives.0.score._children").split(",");
-		for (String child : children) {
-			if ("scaled".equals(child))
-				capabilities.set(LMSCapability.OBJECTIVES_SCORE_SCALED.ordinal());
-			else if	 ("raw".equals(child))
-				capabilities.set(LMSCapability.OBJECTIVES_SCORE_RAW.ordinal());
-			else if	 ("min".equals(child))
-				capabilities.set(LMSCapability.OBJECTIVES_SCORE_MIN.ordinal());
-			else if	 ("max".equals(child))
-				capabilities.set(LMSCapability.OBJECTIVES_SCORE_MAX.ordinal());
+		if (b == null) {
+			String[] keys = LMSCapability.getChildrenKeys();
+			List<String> l = new ArrayList<String>(keys.length + 1);
+			l.add("cmi._version");
+			l.addAll(Arrays.asList(keys));
+			Map<String, String> children = adapter.getScormCharValues(
+					l, new HashMap<String, String>());
+			version = children.get("cmi._version");
+			b = new BitSet(
+					LMSCapability.NUMBER_OF_OPTIONAL_CAPABILITIES.ordinal());
+			for (int i=0; i<keys.length; i++) {
+				String s = children.get(keys[i]);
+				int start = 0;
+				while (start < s.length()) {
+					int end = s.indexOf(',', start);
+					if (end < 0)
+						end = s.length();
+					LMSCapability c = LMSCapability.getCapability(i, s, start, end);
+					if (c != null)
+						b.set(c.ordinal());
+					start = end + 1;
+				}
+			}
+			if (version.length() > 0)
+				synchronized (CAPABILITIES_BY_VERSION) {
+					CAPABILITIES_BY_VERSION.put(version, b);
+				}
 		}
-		children = adapter.getScormCharValue(
-				"cmi.score._children").split(",");
-		for (String child : children) {
-			if ("scaled".equals(child))
-				capabilities.set(LMSCapability.SCORE_SCALED.ordinal());
-			else if	 ("raw".equals(child))
-				capabilities.set(LMSCapability.SCORE_RAW.ordinal());
-			else if	 ("min".equals(child))
-				capabilities.set(LMSCapability.SCORE_MIN.ordinal());
-			else if	 ("max".equals(child))
-				capabilities.set(LMSCapability.SCORE_MAX.ordinal());
+		capabilities = b;
+	}
+
+	/** Begin the communication session.
+	 *  This method also evaluates the error code and throws an exception
+	 *  if an error has occured.
+	 *  
+	 * @throws ScormDataAccessException an error is reported by a SCORM function
+	 */
+	void initialize() throws ScormDataAccessException {
+		cache.clear();
+		// the error code has to be read before another thread calls the LMS
+		synchronized (lms) {
+			boolean r = transport.initialize();
+			Trace.log(Level.INFO, "Initialize", null, r ? "true" : "false");
+			if (!r)
+				throw new ScormDataAccessException();
 		}
-		children = adapter.getScormCharValue(
-				"adl.data._children").split(",");
-		for (String child : children) {
-			if ("id".equals(child))
-				capabilities.set(LMSCapability.ADL_DATA_ID.ordinal());
-			else if	 ("store".equals(child))
-				capabilities.set(LMSCapability.ADL_DATA_STORE.ordinal());
+	}
+	
+	/** End the communication session.
+	 *  This method also evaluates the error code and throws an exception
+	 *  if an error has occured.
+	 *  
+	 * @throws ScormDataAccessException an error is reported by a SCORM function
+	 */
+	void terminate() throws ScormDataAccessException {
+		awaitAsyncCommit();
+		cache.clear();
+		// the error code has to be read before another thread calls the LMS
+		synchronized (lms) {
+			boolean r = transport.terminate();
+			Trace.log(Level.INFO, "Terminate", null, r ? "true" : "false");
+			if (!r)
+				throw new ScormDataAccessException();
 		}
 	}
-
-	/** Calls a given SCORM function that has a boolean return value.
+	
+	/** Persist all data set since the last commit.
 	 *  This method also evaluates the error code and throws an exception
 	 *  if an error has occured.
 	 *  
-	 * @param c  JavaScript function call (as <code>String</code>)
-	 *            including parameters
 	 * @throws ScormDataAccessException an error is reported by a SCORM function
 	 */
-	void callBooleanScormFunction(String c) throws ScormDataAccessException{
-		try {
-			System.out.println("__calling: " + c);
-			String r = (String)scorm.eval(c);
-			System.out.println("__result: " + r + "\n");
-			if (!Boolean.parseBoolean(r)) {
-				System.err.println("Function call '" + c + "' failed!");
+	void commit() throws ScormDataAccessException {
+		// the error code has to be read before another thread calls the LMS
+		synchronized (lms) {
+			boolean r = transport.commit();
+			Trace.log(Level.INFO, "Commit", null, r ? "true" : "false");
+			if (!r)
 				throw new ScormDataAccessException();
+		}
+	}
+	
+	/** Persist all data set since the last commit without blocking the
+	 *  calling thread. The commit is executed by a background thread
+	 *  which calls the LMS in the order of the requests. If a commit is
+	 *  still waiting for execution then no further commit is queued
+	 *  and the future of the waiting commit is returned, because it
+	 *  persists the same data. So there are never more than two
+	 *  commits on their way.
+	 *  
+	 * @return future which reports the completion of the commit; a
+	 *          failed commit is reported as
+	 *          <code>ExecutionException</code> which wraps a
+	 *          <code>ScormDataAccessException</code>
+	 */
+	synchronized Future<Void> commitAsync() {
+		if (queuedCommit != null)
+			return queuedCommit;
+		FutureTask<Void> f = new FutureTask<Void>(new Callable<Void>() {
+			public Void call() throws ScormDataAccessException {
+				commit();
+				return null;
 			}
-		} catch (JSException e) {
-			System.err.println("Function call '" + c +
-					"' failed, JSException was thrown:\n" + e.getMessage());
-			e.printStackTrace();
-			throw new ScormDataAccessException(scorm, e);
+		}) {
+			public void run() {
+				synchronized (ScormAdapter.this) {
+					// later requests need a commit of their own
+					if (queuedCommit == this)
+						queuedCommit = null;
+				}
+				super.run();
+			}
+		};
+		queuedCommit = f;
+		lastCommit = f;
+		if (commitExecutor == null)
+			commitExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+				public Thread newThread(Runnable r) {
+					Thread t = new Thread(r, "SCORM commit");
+					t.setDaemon(true);
+					return t;
+				}
+			});
+		commitExecutor.execute(f);
+		return f;
+	}
+	
+	/** Wait until the last asynchronous commit has been executed.
+	 *  Failures are not reported here but by the future of the commit.
+	 * 
+	 */
+	private void awaitAsyncCommit() {
+		Future<Void> f;
+		synchronized (this) {
+			f = lastCommit;
+			lastCommit = null;
+		}
+		if (f == null)
+			return;
+		try {
+			f.get();
+		} catch (ExecutionException e) {
+			// already reported to the caller of commitAsync()
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
 		}
 	}
 	
@@ -269,17 +327,93 @@ public class ScormAdapter extends SingletonFactory {
 	 * @throws ScormDataAccessException an error is reported by a SCORM function
 	 */
 	String getScormCharValue(String key) throws ScormDataAccessException {
-		String call = "GetValue(\"" + key + "\");"; 
-		System.out.println("__calling: " + call);
-		try {
-			String s = (String)scorm.eval(call);
-			System.out.println("__result: " + s + "\n");
-			return s;
-		} catch (JSException e) {
-			System.err.println("Function call '" + call +
-					"' failed, JSException was thrown:\n" + e.getMessage());
-			throw new ScormDataAccessException(scorm, e);
+		if (caching) {
+			String s = cache.get(key);
+			if (s != null)
+				return s;
+		}
+		long g = cache.getGeneration();
+		String s = transport.getValue(key);
+		Trace.log(Level.DEBUG, "GetValue", key, s);
+		if (caching)
+			cache.put(key, s, g);
+		return s;
+	}
+	
+	/** Read several character-based values from the LMS at once.
+	 *  Compared to single reads this saves the round trips to the LMS.
+	 *  Values that could not be read are returned as empty
+	 *  <code>String</code>s, like <code>getScormCharValue</code> does.
+	 *  
+	 * @param keys  data access keys
+	 * @param result  map which receives the values
+	 * @return the result map
+	 * @throws ScormDataAccessException an error is reported by a SCORM function
+	 */
+	Map<String, String> getScormCharValues(Collection<String> keys,
+			Map<String, String> result) throws ScormDataAccessException {
+		List<String> k = new ArrayList<String>(keys.size());
+		for (String key : keys) {
+			String s = caching ? cache.get(key) : null;
+			if (s != null)
+				result.put(key, s);
+			else
+				k.add(key);
 		}
+		if (k.isEmpty())
+			return result;
+		long g = cache.getGeneration();
+		List<String> v = transport.getValues(k);
+		if (Trace.isEnabled(Level.DEBUG))
+			Trace.log(Level.DEBUG, "GetValues", k.toString(), v.toString());
+		for (int i=0, n=k.size(); i<n; i++) {
+			result.put(k.get(i), v.get(i));
+			if (caching)
+				cache.put(k.get(i), v.get(i), g);
+		}
+		return result;
+	}
+	
+	/** Read several values from the LMS at once and keep them in the
+	 *  cache, so that the following single reads do not need to ask
+	 *  the LMS. Without caching this method does nothing.
+	 *  
+	 * @param keys  data access keys
+	 * @throws ScormDataAccessException an error is reported by a SCORM function
+	 */
+	void prefetch(Collection<String> keys) throws ScormDataAccessException {
+		if (caching)
+			getScormCharValues(keys, new HashMap<String, String>());
+	}
+	
+	/** Read all elements of the data model used by this library
+	 *  from the LMS at once and keep them in the cache. Afterwards the
+	 *  getters are answered without asking the LMS until the SCO
+	 *  changes a value. Without caching this method does nothing.
+	 *  
+	 * @throws ScormDataAccessException an error is reported by a SCORM function
+	 */
+	void loadSnapshot() throws ScormDataAccessException {
+		if (caching)
+			getScormValueTree(CmiDataModel.SNAPSHOT_TEMPLATES);
+	}
+	
+	/** Read all values described by a list of key templates at once.
+	 *  The values are kept in the cache, too.
+	 *  
+	 * @param templates  key templates
+	 * @return all read values by key
+	 * @throws ScormDataAccessException an error is reported by a SCORM function
+	 * @see de.dfki.allegro.scorm.ScormTransport#getValueTree(List)
+	 */
+	Map<String, String> getScormValueTree(List<String> templates) throws ScormDataAccessException {
+		long g = cache.getGeneration();
+		Map<String, String> m = transport.getValueTree(templates);
+		if (Trace.isEnabled(Level.DEBUG))
+			Trace.log(Level.DEBUG, "GetValueTree", null, m.toString());
+		if (caching)
+			cache.load(m, g);
+		return m;
 	}
 	
 	/** Get a Java <code>float</code> representation of the internal
@@ -350,8 +484,18 @@ public class ScormAdapter extends SingletonFactory {
 			throw new ScormEmptyAttributeException("You tried to retrieve (" +
 					key + ") which has not been set before!");
 		}
+		return parseScormTimestamp(val);
+	}
+
+	/** Parse a SCORM timestamp.
+	 *  
+	 *  @param val  the timestamp as read from the LMS
+	 *             
+	 * @return Java <code>Date</code> value
+	 */
+	static Date parseScormTimestamp(String val) {
 		try {
-			return TIMESTAMP_FORMAT.parse(val);
+			return new Date(ScormTimestamp.parse(val));
 		} catch (ParseException e) {
 			String error = "The value '" + val + "' is no SCORM timestamp!";
 			throw new RuntimeException(error, e);
@@ -389,22 +533,36 @@ public class ScormAdapter extends SingletonFactory {
 	 * @throws ScormException an error is reported by a SCORM function
 	 */
 	void setScormCharValue(String key, String value) throws ScormDataAccessException{
-		String call = "SetValue(\"" + key + "\",\"" + value + "\");"; 
-		System.out.println("__calling: " + call);
-		try {
-			String r = (String)scorm.eval(call);
-			System.out.println("__result: " + r + "\n");
-			if (!Boolean.parseBoolean(r)) {
-				System.err.println("Function call '" + call + "' failed!");
+		// the error code has to be read before another thread calls the LMS
+		synchronized (lms) {
+			boolean r = transport.setValue(key, value);
+			Trace.log(Level.DEBUG, "SetValue", key, value);
+			if (!r) {
+				Trace.log(Level.WARN, "SetValue failed", key, value);
 				throw new ScormDataAccessException();
 			}
-		} catch (JSException e) {
-			System.err.println("Function call '" + call +
-					"' failed, JSException was thrown:\n" + e.getMessage());
-			throw new ScormDataAccessException(scorm, e);
 		}
+		cache.written(key);
 	}
 	
+	/** Write an encodable value to the LMS. The value is encoded
+	 *  into a buffer which is reused by the calling thread.
+	 *  This method also evaluates the error code and throws an exception
+	 *  if an error has occured.
+	 *  
+	 * @param key  data access key
+	 * @param value  to write to the LMS
+	 * @throws ScormException an error is reported by a SCORM function
+	 */
+	void setScormValue(String key, ScormEncodable value) throws ScormDataAccessException{
+		StringBuilder b = ENCODING_BUFFER.get();
+		b.setLength(0);
+		String v = ScormEncoding.encode(value, b).toString();
+		if (b.capacity() > MAX_ENCODING_BUFFER)
+			ENCODING_BUFFER.remove();
+		setScormCharValue(key, v);
+	}
+
 	/** Write a <code>Date</code> value to the LMS.
 	 *  This method also evaluates the error code and throws an exception
 	 *  if an error has occured.
@@ -414,7 +572,36 @@ public class ScormAdapter extends SingletonFactory {
 	 * @throws ScormException an error is reported by a SCORM function
 	 */
 	void setScormTimestamp(String key, Date value) throws ScormDataAccessException{
-		setScormCharValue(key, TIMESTAMP_FORMAT.format(value));
+		setScormCharValue(key, ScormTimestamp.format(value.getTime()));
+	}
+	
+	/** Activate or deactivate the write-behind mode. In this mode
+	 *  writes are kept in a buffer which holds the last value per key.
+	 *  The buffer is sent at once just before the data is persisted,
+	 *  i.e. on <code>commitCommunicationSession()</code> and
+	 *  <code>terminateCommunicationSession()</code>. Values the LMS
+	 *  already holds are not written again, so a commit only sends the
+	 *  changed elements. The default is to write through immediately.
+	 *  
+	 *  Note that errors of buffered writes are reported when the buffer
+	 *  is sent and not by the setter.
+	 *  
+	 * @param f  <code>true</code> to buffer writes until the next commit
+	 * @throws ScormDataAccessException sending the buffer failed
+	 * @see de.dfki.allegro.scorm.WriteBehindTransport
+	 */
+	public static synchronized void setWriteBehind(boolean f) throws ScormDataAccessException {
+		ScormAdapter a = adapter;
+		// no call may use the old transport after the switch
+		synchronized (a.lms) {
+			ScormTransport t = a.transport;
+			if (f && t == a.lms)
+				a.transport = new WriteBehindTransport(t);
+			else if (!f && t != a.lms) {
+				((WriteBehindTransport)t).flush();
+				a.transport = a.lms;
+			}
+		}
 	}
 	
 	/** Get the login session
@@ -446,6 +633,19 @@ public class ScormAdapter extends SingletonFactory {
 		adapter.strictStandardHandling = f;
 	}
 	
+	/** Activate or deactivate the caching of values read from the LMS.
+	 *  Values which do not change during a communication session
+	 *  (e.g. <code>cmi.learner_id</code>) are cached until the session
+	 *  ends, other values until they are written by the SCO. The
+	 *  default is to use the cache.
+	 *  
+	 *  @param f  <code>true</code> to cache values
+	 */
+	public static void setCaching(boolean f) {
+		adapter.caching = f;
+		adapter.cache.clear();
+	}
+	
 	/** Get the setting of the setting of the standard handling method.
 	 *  If this flag is <code>true</code> then every standard violation
 	 *  throws an exception. Otherwise, if it is plausible, the adapter
@@ -18,8 +18,9 @@ package de.dfki.allegro.scorm;
 
 /** All implementing classes have methods that directly
  *  trigger the call of methods if the LMS SCORM API.
- *  The classes do not use any caching because some LMS
- *  SCORM APIs already implement caching.
+ *  Reads may be answered by the cache of the
+ *  <code>ScormAdapter</code> which only keeps values
+ *  that cannot change without a write of the SCO.
  * 
  * @author Timo Scheuer
  *
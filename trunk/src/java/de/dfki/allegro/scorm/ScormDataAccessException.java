@@ -16,14 +16,27 @@
 package de.dfki.allegro.scorm;
 
 
-import netscape.javascript.JSException;
-import netscape.javascript.JSObject;
+import java.util.BitSet;
+
+import de.dfki.allegro.scorm.util.Trace;
+import de.dfki.allegro.scorm.util.Trace.Level;
+
 
 /** A problem occured during the communication with the LMS.
  *  The error message is mainly based on the SCORM method
  *  <code>GetLastError()</code>. More details can be retrieved
  *  by calling <code>getDetailMessage()</code> which is
  *  based on the SCORM method <code>GetDiagnostic()</code>.
+ *
+ *  Only the error code is read when the exception is created. The
+ *  message and the details are asked for on first use and kept
+ *  afterwards, so rendering the exception several times (e.g. by a
+ *  logger) does not call the LMS again. Errors which are expected by
+ *  the library (see <code>setExpectedError</code>) are described by
+ *  the texts of the standard and never cause further calls.
+ *
+ *  If the connection itself failed then the LMS is not asked at all
+ *  and the error code is 101 (General Exception).
  * 
  * @author Timo Scheuer
  *
@@ -33,39 +46,105 @@ public class ScormDataAccessException extends RuntimeException {
 	/** Serial version id. */
 	private static final long serialVersionUID = 1L;
 	
+	/** Error code used if the connection to the LMS failed. */
+	private static final int GENERAL_EXCEPTION = 101;
+
+	/** Error codes which are handled by the library itself. */
+	private static final BitSet EXPECTED = new BitSet(512);
+
+	static {
+		// Initialize("") called by the LMS, see LoginSession
+		EXPECTED.set(103);
+		// index out of range, see LearnerComments and LMSComments
+		EXPECTED.set(301);
+		// value not initialized
+		EXPECTED.set(403);
+	}
 	
-	/** JavaScript connection to the LMS. */
-	private JSObject scorm;
+	
+	/** Connection to the LMS. */
+	private transient ScormTransport transport;
 	/** Error code. */
 	private int err;
+	/** Error message or <code>null</code> if not retrieved yet. */
+	private String message;
+	/** Error details or <code>null</code> if not retrieved yet. */
+	private String detail;
+	/** <code>true</code> iff the details have been retrieved. */
+	private boolean detailRead;
 
 	
 	/** Ctor.
 	 * 
 	 */
 	ScormDataAccessException() {
-		this(ScormAdapter.adapter.scorm, null);
+		this(ScormAdapter.adapter.transport, null);
 	}
 
 	/** Ctor.
 	 * 
-	 * @param jso  JavaScript connection to the LMS
+	 * @param t  connection to the LMS
+	 * @param e  the failure of the connection or <code>null</code> if
+	 *            the LMS reported an error
 	 */
-	ScormDataAccessException(JSObject jso, JSException e) {
+	ScormDataAccessException(ScormTransport t, Throwable e) {
 		super(e);
-		scorm = jso;
+		if (e != null) {
+			// asking a broken connection would fail again
+			err = GENERAL_EXCEPTION;
+			if (Trace.isEnabled(Level.ERROR))
+				Trace.log(Level.ERROR, "LMS connection", null, e.toString());
+			return;
+		}
+		transport = t;
+		String errString = null;
 		try {
-			String errString = (String)jso.eval("GetLastError(\"\");");
-			try {
-				err = Integer.parseInt(errString);
-			} catch (NumberFormatException ex) {
-				System.err.println("Warning: Error number format error:\n" +
-						ex.getLocalizedMessage());
-			}
-			System.err.println("ErrorCode: " + err);
-		} catch (JSException eOuter) {
-			System.err.println("Unable to read error code of last error.\n" +
-					eOuter.getLocalizedMessage());
+			errString = t.getLastError();
+			err = Integer.parseInt(errString);
+		} catch (NumberFormatException ex) {
+			err = GENERAL_EXCEPTION;
+			if (Trace.isEnabled(Level.WARN))
+				Trace.log(Level.WARN, "GetLastError", null,
+						"error number format error: " + errString);
+			return;
+		} catch (RuntimeException eOuter) {
+			err = GENERAL_EXCEPTION;
+			if (Trace.isEnabled(Level.ERROR))
+				Trace.log(Level.ERROR, "GetLastError", null,
+						"unable to read error code of last error: " +
+						eOuter.getLocalizedMessage());
+			return;
+		}
+		Trace.log(isExpectedError(err) ? Level.DEBUG : Level.WARN,
+				"GetLastError", null, errString);
+	}
+
+	/** Declare whether an error code is expected, i.e. handled by the
+	 *  application. The message of an expected error is taken from the
+	 *  standard and no details are retrieved, which saves the calls of
+	 *  <code>GetErrorString()</code> and <code>GetDiagnostic()</code>.
+	 *  By default the codes 103, 301 and 403 are expected.
+	 * 
+	 * @param code  SCORM error code
+	 * @param expected  <code>true</code> if the error is expected
+	 */
+	public static void setExpectedError(int code, boolean expected) {
+		synchronized (EXPECTED) {
+			EXPECTED.set(code, expected);
+		}
+	}
+
+	/** Check whether an error code is expected.
+	 * 
+	 * @param code  SCORM error code
+	 * @return <code>true</code> iff the error is expected
+	 * @see #setExpectedError(int, boolean)
+	 */
+	public static boolean isExpectedError(int code) {
+		if (code < 0)
+			return false;
+		synchronized (EXPECTED) {
+			return EXPECTED.get(code);
 		}
 	}
 
@@ -85,8 +164,22 @@ public class ScormDataAccessException extends RuntimeException {
 	 *  
 	 *   @return SCORM error message
 	 */
-	public String getMessage() {
-		return (String)scorm.eval("GetErrorString(\"\");");
+	public synchronized String getMessage() {
+		if (message == null) {
+			String m = null;
+			if (transport != null && !isExpectedError(err))
+				try {
+					m = transport.getErrorString(Integer.toString(err));
+				} catch (RuntimeException e) {
+					// fall back to the standard text
+				}
+			if (m == null || m.length() == 0)
+				m = standardErrorString(err);
+			if (getCause() != null)
+				m = m + ": " + getCause();
+			message = m;
+		}
+		return message;
 	}
 	
 	/** Get more details about the problem (if available).
@@ -94,8 +187,17 @@ public class ScormDataAccessException extends RuntimeException {
 	 * @return more detailed description or <code>null</code>
 	 *           if no more details are available.
 	 */
-	public String getDetailMessage() {
-		return (String)scorm.eval("GetDiagnostic(" + err + ");");
+	public synchronized String getDetailMessage() {
+		if (!detailRead) {
+			if (transport != null && !isExpectedError(err))
+				try {
+					detail = transport.getDiagnostic(Integer.toString(err));
+				} catch (RuntimeException e) {
+					// no details available
+				}
+			detailRead = true;
+		}
+		return detail;
 	}
 	
 	/** Get the numeric representation of the error.
@@ -105,4 +207,44 @@ public class ScormDataAccessException extends RuntimeException {
 	public int getErrorCode() {
 		return err;
 	}
+	
+	/** Get the error description defined by the SCORM 2004 run-time
+	 *  environment for a given error code. LMS implementations may
+	 *  use their own (localized) descriptions instead.
+	 * 
+	 * @param code  SCORM error code
+	 * @return error description or the empty <code>String</code>
+	 *          if the code is not defined by the standard
+	 */
+	static String standardErrorString(int code) {
+		switch (code) {
+		case 0:   return "No Error";
+		case 101: return "General Exception";
+		case 102: return "General Initialization Failure";
+		case 103: return "Already Initialized";
+		case 104: return "Content Instance Terminated";
+		case 111: return "General Termination Failure";
+		case 112: return "Termination Before Initialization";
+		case 113: return "Termination After Termination";
+		case 122: return "Retrieve Data Before Initialization";
+		case 123: return "Retrieve Data After Termination";
+		case 132: return "Store Data Before Initialization";
+		case 133: return "Store Data After Termination";
+		case 142: return "Commit Before Initialization";
+		case 143: return "Commit After Termination";
+		case 201: return "General Argument Error";
+		case 301: return "General Get Failure";
+		case 351: return "General Set Failure";
+		case 391: return "General Commit Failure";
+		case 401: return "Undefined Data Model Element";
+		case 402: return "Unimplemented Data Model Element";
+		case 403: return "Data Model Element Value Not Initialized";
+		case 404: return "Data Model Element Is Read Only";
+		case 405: return "Data Model Element Is Write Only";
+		case 406: return "Data Model Element Type Mismatch";
+		case 407: return "Data Model Element Value Out Of Range";
+		case 408: return "Data Model Dependency Not Established";
+		default:  return "";
+		}
+	}
 }
@@ -25,6 +25,8 @@ abstract class ScormElement {
 
 	/** Access key of the character data. */
 	protected String key;
+	/** Precomputed keys of the child elements, created on first use.*/
+	private ElementKeys keys;
 
 	
 	/** Ctor.
@@ -41,6 +43,18 @@ abstract class ScormElement {
 		key = k;
 	}
 
+	/** Get the access key of a child element. The key is computed
+	 *  once and shared by all objects with the same access key.
+	 * 
+	 * @param child  name of the child element, e.g. <code>id</code>
+	 * @return the access key of the child element
+	 */
+	protected String key(String child) {
+		if (keys == null)
+			keys = ElementKeys.of(key);
+		return keys.get(child);
+	}
+
 	/** Get a <code>String</code> representation.
 	 *  
 	 *  @return Java <code>String</code> representation
@@ -0,0 +1,146 @@
+/** Copyright 2010 Timo Scheuer
+ * 
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.dfki.allegro.scorm;
+
+
+import java.util.List;
+import java.util.Map;
+
+
+/** Connection to the SCORM 2004 run-time API of an LMS. The methods
+ *  mirror the eight functions of the SCORM API instance
+ *  (<code>API_1484_11</code>). The <code>ScormAdapter</code> uses
+ *  exactly one transport for all reads and writes, hence the
+ *  transport decides how (and how fast) the data reaches the LMS.
+ *
+ *  Implementations do not interpret the SCORM error codes. The
+ *  result of a function is reported as returned by the LMS and the
+ *  caller asks for the error code via <code>getLastError()</code>.
+ *  A <code>ScormDataAccessException</code> is only thrown if the
+ *  connection itself fails.
+ *
+ * @author Timo Scheuer
+ *
+ * @see de.dfki.allegro.scorm.JSObjectTransport
+ * @see de.dfki.allegro.scorm.InMemoryTransport
+ * @see de.dfki.allegro.scorm.BatchingTransport
+ */
+public interface ScormTransport {
+
+	/** Begin the communication session (<code>Initialize("")</code>).
+	 * 
+	 * @return <code>true</code> iff the LMS reports success
+	 * @throws ScormDataAccessException the connection to the LMS failed
+	 */
+	public boolean initialize() throws ScormDataAccessException;
+
+	/** End the communication session (<code>Terminate("")</code>).
+	 * 
+	 * @return <code>true</code> iff the LMS reports success
+	 * @throws ScormDataAccessException the connection to the LMS failed
+	 */
+	public boolean terminate() throws ScormDataAccessException;
+
+	/** Persist all data set since the last commit (<code>Commit("")</code>).
+	 * 
+	 * @return <code>true</code> iff the LMS reports success
+	 * @throws ScormDataAccessException the connection to the LMS failed
+	 */
+	public boolean commit() throws ScormDataAccessException;
+
+	/** Read a value of the data model (<code>GetValue(key)</code>).
+	 * 
+	 * @param key  data model element
+	 * @return the value or the empty <code>String</code> if an error
+	 *          occurred
+	 * @throws ScormDataAccessException the connection to the LMS failed
+	 */
+	public String getValue(String key) throws ScormDataAccessException;
+
+	/** Read a sequence of values of the data model. Transports that
+	 *  are able to do so read all values at once. Afterwards
+	 *  <code>getLastError()</code> describes the last read only.
+	 * 
+	 * @param keys  data model elements
+	 * @return the values in the order of the keys (the empty
+	 *          <code>String</code> for values that could not be read)
+	 * @throws ScormDataAccessException the connection to the LMS failed
+	 */
+	public List<String> getValues(List<String> keys) throws ScormDataAccessException;
+
+	/** Read all values described by a list of key templates. In a
+	 *  template each collection index is replaced by <code>n</code>,
+	 *  e.g. <code>cmi.interactions.n.objectives.n.id</code>. The
+	 *  template is expanded using the <code>_count</code> values of the
+	 *  collections. Transports that are able to do so read the whole
+	 *  tree at once.
+	 * 
+	 * @param templates  key templates
+	 * @return all read values by key, including the <code>_count</code>
+	 *          values of the visited collections
+	 * @throws ScormDataAccessException the connection to the LMS failed
+	 * @see de.dfki.allegro.scorm.CmiDataModel#readTree(ScormTransport, List)
+	 */
+	public Map<String, String> getValueTree(List<String> templates) throws ScormDataAccessException;
+
+	/** Write a value of the data model (<code>SetValue(key, value)</code>).
+	 * 
+	 * @param key  data model element
+	 * @param value  the new value
+	 * @return <code>true</code> iff the LMS reports success
+	 * @throws ScormDataAccessException the connection to the LMS failed
+	 */
+	public boolean setValue(String key, String value) throws ScormDataAccessException;
+
+	/** Write a sequence of values in the given order. Transports that
+	 *  are able to do so write all values at once. Writing stops at the
+	 *  first value the LMS rejects, so <code>getLastError()</code>
+	 *  describes the failed write afterwards.
+	 * 
+	 * @param keys  data model elements
+	 * @param values  the new values (same order as the keys)
+	 * @return the index of the first rejected value or <code>-1</code>
+	 *          if all values have been written
+	 * @throws ScormDataAccessException the connection to the LMS failed
+	 */
+	public int setValues(List<String> keys, List<String> values) throws ScormDataAccessException;
+
+	/** Get the error code of the last API call (<code>GetLastError()</code>).
+	 * 
+	 * @return SCORM error code (<code>"0"</code> means no error)
+	 * @throws ScormDataAccessException the connection to the LMS failed
+	 */
+	public String getLastError() throws ScormDataAccessException;
+
+	/** Get the textual description of an error code
+	 *  (<code>GetErrorString(code)</code>).
+	 * 
+	 * @param code  SCORM error code
+	 * @return error description
+	 * @throws ScormDataAccessException the connection to the LMS failed
+	 */
+	public String getErrorString(String code) throws ScormDataAccessException;
+
+	/** Get LMS specific details of an error code
+	 *  (<code>GetDiagnostic(code)</code>).
+	 * 
+	 * @param code  SCORM error code
+	 * @return LMS specific error details
+	 * @throws ScormDataAccessException the connection to the LMS failed
+	 */
+	public String getDiagnostic(String code) throws ScormDataAccessException;
+
+}
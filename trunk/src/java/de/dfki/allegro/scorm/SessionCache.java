@@ -0,0 +1,206 @@
+/** Copyright 2010 Timo Scheuer
+ * 
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.dfki.allegro.scorm;
+
+
+import java.util.HashMap;
+import java.util.Map;
+
+import de.dfki.allegro.scorm.CmiDataModel.CachePolicy;
+
+
+/** Values read from the LMS during one communication session. Which
+ *  values are kept depends on the cache policy of the element:
+ *  immutable values are kept until the session ends, read-write values
+ *  until the SCO writes them and the <code>_count</code> of a
+ *  collection is updated when the SCO appends an element.
+ *  
+ *  Empty values are not cached because the LMS also returns an empty
+ *  value if an error occurred.
+ *  
+ *  Reads are not synchronized with writes, so a value read before a
+ *  concurrent write may arrive after the write. Therefore the reader
+ *  takes the generation of the cache before it asks the LMS and a
+ *  value is only kept if neither it nor a value it is derived from has
+ *  been written since. Hence a page read in the background keeps all
+ *  values the SCO has not touched in the meantime.
+ * 
+ * @author Timo Scheuer
+ *
+ * @see de.dfki.allegro.scorm.CmiDataModel#getCachePolicy(String)
+ */
+final class SessionCache {
+
+	/** The cached values.*/
+	private final Map<String, String> values = new HashMap<String, String>();
+	/** Number of the actual communication session. Changes whenever
+	 *  the cache is cleared.
+	 */
+	private int session = 0;
+	/** Number of changes of the LMS data known to the cache. Increased
+	 *  by every write and by clearing the cache.
+	 */
+	private long generation = 0;
+	/** Generation of the last write by key, including the keys derived
+	 *  from the written ones.
+	 */
+	private final Map<String, Long> changed = new HashMap<String, Long>();
+	/** Generation at which the cache has been cleared.*/
+	private long cleared = 0;
+
+	
+	/** Ctor.
+	 * 
+	 */
+	SessionCache() {
+	}
+
+	/** Get a cached value.
+	 * 
+	 * @param key  data model element
+	 * @return the value or <code>null</code> if the value is not cached
+	 */
+	synchronized String get(String key) {
+		return values.get(key);
+	}
+
+	/** Get the actual generation. It has to be taken before the LMS
+	 *  is asked for the values that are passed to <code>put</code> or
+	 *  <code>load</code>.
+	 * 
+	 * @return the generation
+	 */
+	synchronized long getGeneration() {
+		return generation;
+	}
+
+	/** Store a value read from the LMS.
+	 * 
+	 * @param key  data model element
+	 * @param value  the value returned by the LMS
+	 * @param g  generation taken before the value has been read
+	 */
+	synchronized void put(String key, String value, long g) {
+		if (isStale(key, g) || value == null || value.length() == 0 ||
+				CmiDataModel.getCachePolicy(key) == CachePolicy.WRITE_ONLY)
+			return;
+		values.put(key, value);
+	}
+
+	/** Store a complete snapshot of values read from the LMS. Other
+	 *  than <code>put</code> this also keeps empty values, because the
+	 *  snapshot is known to contain every element that has been read.
+	 *  An empty <code>_count</code> is an error of the LMS though and
+	 *  is not kept.
+	 * 
+	 * @param m  values by key
+	 * @param g  generation taken before the values have been read
+	 */
+	synchronized void load(Map<String, String> m, long g) {
+		for (Map.Entry<String, String> e : m.entrySet()) {
+			String k = e.getKey();
+			if (isStale(k, g) ||
+					CmiDataModel.getCachePolicy(k) == CachePolicy.WRITE_ONLY ||
+					e.getValue().length() == 0 && k.endsWith("._count"))
+				continue;
+			values.put(k, e.getValue());
+		}
+	}
+
+	/** Update the cache after the SCO has written a value. The value
+	 *  itself is not cached because the LMS may normalize it. Values
+	 *  the LMS derives from the written one are dropped as well.
+	 * 
+	 * @param key  data model element
+	 */
+	synchronized void written(String key) {
+		Long g = Long.valueOf(++generation);
+		changed.put(key, g);
+		values.remove(key);
+		// the LMS may evaluate the status using the progress measure,
+		// the scaled score and the thresholds
+		int dot = key.lastIndexOf('.');
+		String parent = key.substring(0, dot + 1);
+		if (parent.endsWith(".score."))
+			parent = parent.substring(0, parent.length() - 6);
+		String status = parent + "completion_status";
+		changed.put(status, g);
+		values.remove(status);
+		status = parent + "success_status";
+		changed.put(status, g);
+		values.remove(status);
+		// appending to a collection increments its count
+		int i = CmiDataModel.indexOf(key, 0);
+		while (i >= 0) {
+			int end = key.indexOf('.', i + 1);
+			if (end < 0)
+				end = key.length();
+			String countKey = key.substring(0, i) + "._count";
+			changed.put(countKey, g);
+			String count = values.get(countKey);
+			if (count != null) {
+				int index = CmiDataModel.parseIndex(key, i + 1, end);
+				int n;
+				try {
+					n = Integer.parseInt(count);
+				} catch (NumberFormatException e) {
+					// the count is unknown and is dropped below
+					n = -1;
+				}
+				if (index == n)
+					values.put(countKey, Integer.toString(n + 1));
+				else if (index > n)
+					values.remove(countKey);
+			}
+			i = CmiDataModel.indexOf(key, end);
+		}
+	}
+
+	/** Drop all cached values and start a new communication session.
+	 * 
+	 */
+	synchronized void clear() {
+		values.clear();
+		changed.clear();
+		session++;
+		cleared = ++generation;
+	}
+
+	/** Check if a value read from the LMS may be outdated.
+	 * 
+	 * @param key  data model element
+	 * @param g  generation taken before the value has been read
+	 * @return <code>true</code> iff the element has been written or the
+	 *          cache has been cleared since
+	 */
+	private boolean isStale(String key, long g) {
+		if (g < cleared)
+			return true;
+		Long c = changed.get(key);
+		return c != null && c.longValue() > g;
+	}
+
+	/** Get the number of the actual communication session. The number
+	 *  changes whenever the cache is cleared, so information derived
+	 *  from cached values can be checked for validity.
+	 * 
+	 * @return session number
+	 */
+	synchronized int getSession() {
+		return session;
+	}
+
+}
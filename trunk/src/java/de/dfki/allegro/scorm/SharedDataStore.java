@@ -36,17 +36,94 @@ import de.dfki.allegro.scorm.token.LMSCapability;
  *  SCORM 2004 4th edition limits the length of a storage element to
  *  64000 characters.
  *  
+ *  The stores are accessed by id with <code>get()</code> and
+ *  <code>put()</code>. The position of an id is taken from an index
+ *  which is read once per communication session. The values are
+ *  kept by the cache of the <code>ScormAdapter</code> until the SCO
+ *  writes a new value.
+ *  
  * @author Timo Scheuer
  *
  */
 public class SharedDataStore extends AbstractMap<String, String> {
 
+	/** Maximum length of a storage element.*/
+	private static final int MAX_STORE_LENGTH = 64000;
+	/** Keys of the stores.*/
+	private static final ElementKeys KEYS = ElementKeys.of("adl.data.");
+
+	/** Index of the store ids.*/
+	private final IdIndex index = new IdIndex("adl.data", null);
+
+
 	/** Ctor.
 	 * 
 	 */
 	SharedDataStore() {
 	}
 
+	/** Get the value of a store.
+	 * 
+	 * @param id  the store id
+	 * @return the value or <code>null</code> if there is no store
+	 *          with this id
+	 * @see de.dfki.allegro.scorm.ScormAdapter#setCaching(boolean)
+	 */
+	public String get(Object id) {
+		int i = index.indexOf(id);
+		if (i < 0)
+			return null;
+		return ScormAdapter.adapter.getScormCharValue(KEYS.entry(i).get("store"));
+	}
+
+	/** Check if there is a store with a given id.
+	 * 
+	 * @param id  the store id
+	 * @return <code>true</code> iff the store is defined
+	 */
+	public boolean containsKey(Object id) {
+		return index.indexOf(id) >= 0;
+	}
+
+	/** Replace the value of a store. Only stores defined in the
+	 *  SCORM package can be written.
+	 * 
+	 *  SCORM 2004 4th edition limits the length of a storage element to
+	 *  64000 characters.
+	 *  
+	 * @param id  the store id
+	 * @param value  new value to write to the data store
+	 * @return the previous value
+	 * @throws IllegalArgumentException there is no store with this id
+	 * @throws ScormObjectSizeOutOfLimitException the value is too long
+	 */
+	public String put(String id, String value) throws IllegalArgumentException {
+		int i = index.indexOf(id);
+		if (i < 0)
+			throw new IllegalArgumentException("The data store '" + id +
+					"' is not defined in the SCORM package!");
+		return write(i, value);
+	}
+
+	/** Write the value of a store.
+	 * 
+	 * @param i  position of the store
+	 * @param value  new value to write to the data store
+	 * @return the previous value
+	 * @throws ScormObjectSizeOutOfLimitException the value is too long
+	 */
+	private static String write(int i, String value) {
+		if (value.length() > MAX_STORE_LENGTH)
+			throw new ScormObjectSizeOutOfLimitException("You tried to store " +
+					value.length() + " characters in a data store but the" +
+					" maximum allowed length is " + MAX_STORE_LENGTH + "!");
+		String k = KEYS.entry(i).get("store");
+		String old = ScormAdapter.adapter.getScormCharValue(k);
+		if (!old.equals(value))
+			ScormAdapter.adapter.setScormCharValue(k, value);
+		return old;
+	}
+
 	/** The internal map data represented as a set.*/
 	private Set<Map.Entry<String, String>> dataStoreSet = new AbstractSet<Map.Entry<String, String>>() {
 		/** Get an <code>Iterator</code> over the elements of
@@ -58,6 +135,8 @@ public class SharedDataStore extends AbstractMap<String, String> {
 			return new Iterator<Map.Entry<String, String>>() {
 				/** The actual iterator position.*/
 				private int position;
+				/** Number of elements, read once per iteration.*/
+				private final int count = size();
 				
 				/** Returns <code>true</code> iff there is another
 				 *  element.
@@ -65,7 +144,7 @@ public class SharedDataStore extends AbstractMap<String, String> {
 				 *  @return <code>true</code> iff there is a successor
 				 */
 				public boolean hasNext() {
-					return position<size();
+					return position<count;
 				}
 
 				/** Get the next element.
@@ -86,7 +165,7 @@ public class SharedDataStore extends AbstractMap<String, String> {
 						 */
 						public String getKey() {
 							return ScormAdapter.adapter.getScormCharValue(
-									"adl.data." + entryPosition + ".id");
+									KEYS.entry(entryPosition).get("id"));
 						}
 
 						/** Get the entry value.
@@ -98,7 +177,7 @@ public class SharedDataStore extends AbstractMap<String, String> {
 						 */
 						public String getValue() {
 							return ScormAdapter.adapter.getScormCharValue(
-									"adl.data." + entryPosition + ".store");
+									KEYS.entry(entryPosition).get("store"));
 						}
 
 						/** Replace the actual value.
@@ -110,10 +189,7 @@ public class SharedDataStore extends AbstractMap<String, String> {
 						 */
 						@ScormSizeLimit(64000)
 						public String setValue(String value) {
-							String old = getValue();
-							ScormAdapter.adapter.setScormCharValue(
-									"adl.data." + entryPosition + ".store", value);
-							return old;
+							return write(entryPosition, value);
 						}
 					};
 				}
@@ -137,7 +213,7 @@ public class SharedDataStore extends AbstractMap<String, String> {
 			try {
 				return Integer.parseInt(
 						ScormAdapter.adapter.getScormCharValue(
-								"adl.data._count"));
+								KEYS.get("_count")));
 			} catch (NumberFormatException e) {
 				if (ScormAdapter.getStrictStandardHandling())
 					throw e;
@@ -15,6 +15,9 @@
  */
 package de.dfki.allegro.scorm;
 
+import java.io.Reader;
+import java.io.Writer;
+
 import de.dfki.allegro.scorm.annotation.ScormSizeLimit;
 import de.dfki.allegro.scorm.token.CreditSetting;
 import de.dfki.allegro.scorm.token.EntryStatus;
@@ -112,6 +115,7 @@ public class State {
 	 */
 	@ScormSizeLimit(1000)
 	public void setAttemptLocation(String l) {
+		StateConstraints.setAttemptLocation(l);
 		ScormAdapter.adapter.setScormCharValue("cmi.location", l.toString());
 	}
 
@@ -153,9 +157,51 @@ public class State {
 	 */
 	@ScormSizeLimit(64000)
 	public void setAttemptSuspendData(String d) {
+		StateConstraints.setAttemptSuspendData(d);
 		ScormAdapter.adapter.setScormCharValue("cmi.suspend_data", d.toString());
 	}
 
+	/** Open a writer of compressed suspend data. The characters are
+	 *  compressed and encoded with characters that are safe in the
+	 *  suspend data. Data which does not fit into the suspend data is
+	 *  continued in the given stores of the shared data store. The
+	 *  data is kept in memory and written to the LMS when the writer is
+	 *  closed. If it does not fit then <code>write()</code> or
+	 *  <code>close()</code> throw an <code>IOException</code> and the
+	 *  suspend data and the stores are not changed.
+	 *  
+	 *  The data has to be read with
+	 *  <code>openAttemptSuspendDataReader()</code>. The writer is not
+	 *  thread-safe.
+	 * 
+	 * @param overflowStores  ids of the stores which may hold data that
+	 *                         does not fit into the suspend data, in the
+	 *                         order of use
+	 * @return the writer
+	 * @throws IllegalArgumentException a store is not defined in the
+	 *                                   SCORM package
+	 * @see #openAttemptSuspendDataReader()
+	 * @see de.dfki.allegro.scorm.SharedDataStore
+	 */
+	public Writer openAttemptSuspendDataWriter(String... overflowStores)
+	throws IllegalArgumentException {
+		return SuspendDataCodec.writer(this, overflowStores);
+	}
+
+	/** Open a reader of the suspend data. Data written by
+	 *  <code>openAttemptSuspendDataWriter()</code> is decompressed and
+	 *  read from the suspend data and the stores it has been continued
+	 *  in. The stores are read not until their data is needed. Any
+	 *  other suspend data is read unchanged.
+	 * 
+	 * @return the reader
+	 * @see #openAttemptSuspendDataWriter(String...)
+	 */
+	public Reader openAttemptSuspendDataReader() {
+		return SuspendDataCodec.reader(getAttemptSuspendData(),
+				getSharedDataStore());
+	}
+
 	//-----  global data shared with other SCOs  --------------------------
 	/** Get the shared data store which allows sharing data between multiple
 	 *  SCOs. The scope can be configured in the SCORM package to survive
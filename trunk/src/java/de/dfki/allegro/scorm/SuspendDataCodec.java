@@ -0,0 +1,433 @@
+/** Copyright 2010 Timo Scheuer
+ * 
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.dfki.allegro.scorm;
+
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import de.dfki.allegro.scorm.util.Tokenizer;
+
+
+/** Codec of compressed suspend data. The characters are encoded with
+ *  UTF-8, compressed with deflate and written as base64 which only
+ *  uses characters that are safe in a SCORM character string. Data
+ *  which does not fit into <code>cmi.suspend_data</code> is continued
+ *  in stores of the <code>SharedDataStore</code>.
+ *
+ *  The encoded suspend data starts with the header
+ *  <code>{suspend_data=deflate}</code>, optionally followed by
+ *  <code>{continue=id1[,]id2}</code> listing the stores which hold the
+ *  rest of the data. Suspend data without this header has been
+ *  written as plain character string and is read unchanged.
+ *
+ *  The writer keeps the encoded data in memory and writes the stores
+ *  and the suspend data not until it is closed. Hence the stores
+ *  listed by the suspend data written before are not changed if the
+ *  new data does not fit. The memory is limited by the size of the
+ *  suspend data and the given stores. The reader fetches a store not
+ *  until its characters are needed.
+ *
+ * @author Timo Scheuer
+ *
+ */
+final class SuspendDataCodec {
+
+	/** Header of compressed suspend data.*/
+	static final String HEADER = "{suspend_data=deflate}";
+	/** Start of the list of stores holding the rest of the data.*/
+	private static final String CONTINUE = "{continue=";
+	/** Maximum length of the suspend data and of a store.*/
+	private static final int MAX_LENGTH = 64000;
+	/** Character set of the suspend data.*/
+	private static final String CHARSET = "UTF-8";
+	/** The base64 alphabet.*/
+	private static final char[] ALPHABET =
+		"ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+
+
+	/** No instances.
+	 * 
+	 */
+	private SuspendDataCodec() {
+	}
+
+	/** Open a writer of compressed suspend data. The data is written
+	 *  to the LMS when the writer is closed.
+	 * 
+	 * @param s  the state to write the suspend data to
+	 * @param ids  ids of the stores which may hold data that does not
+	 *              fit into the suspend data
+	 * @return the writer
+	 * @throws IllegalArgumentException a store is not defined in the
+	 *                                   SCORM package
+	 */
+	static Writer writer(State s, String[] ids) throws IllegalArgumentException {
+		try {
+			return new OutputStreamWriter(
+					new DeflaterOutputStream(new Encoder(s, ids)), CHARSET);
+		} catch (UnsupportedEncodingException e) {
+			// every Java platform supports UTF-8
+			throw new RuntimeException(e);
+		}
+	}
+
+	/** Open a reader of suspend data. Compressed data is decoded,
+	 *  any other data is read unchanged.
+	 * 
+	 * @param v  the suspend data
+	 * @param store  the shared data store holding the rest of the data
+	 * @return the reader
+	 */
+	static Reader reader(String v, SharedDataStore store) {
+		if (!v.startsWith(HEADER))
+			return new StringReader(v);
+		String[] ids = new String[0];
+		int start = HEADER.length();
+		if (v.startsWith(CONTINUE, start)) {
+			int end = v.indexOf('}', start);
+			if (end < 0)
+				end = v.length();
+			ids = Tokenizer.split(v.substring(start + CONTINUE.length(), end),
+					Tokenizer.ARRAY);
+			start = Math.min(end + 1, v.length());
+		}
+		try {
+			return new InputStreamReader(
+					new InflaterInputStream(new Decoder(v, start, ids, store)), CHARSET);
+		} catch (UnsupportedEncodingException e) {
+			// every Java platform supports UTF-8
+			throw new RuntimeException(e);
+		}
+	}
+
+	/** Get the header of compressed suspend data.
+	 * 
+	 * @param ids  ids of the stores holding the rest of the data
+	 * @param n  number of stores which are used
+	 * @return the header
+	 */
+	private static String header(String[] ids, int n) {
+		if (n == 0)
+			return HEADER;
+		StringBuilder b = new StringBuilder(HEADER).append(CONTINUE);
+		for (int i=0; i<n; i++) {
+			if (i > 0)
+				b.append(Tokenizer.ARRAY);
+			b.append(ids[i]);
+		}
+		return b.append('}').toString();
+	}
+
+
+	/** Stream which encodes bytes as base64 and splits the characters
+	 *  into the suspend data and the stores. Nothing is written before
+	 *  the stream is closed, so data which does not fit does not touch
+	 *  the stores holding the suspend data written before.
+	 * 
+	 * @author Timo Scheuer
+	 * 
+	 */
+	private static final class Encoder extends OutputStream {
+		/** The state to write the suspend data to.*/
+		private final State state;
+		/** Ids of the stores.*/
+		private final String[] ids;
+		/** Characters of the suspend data.*/
+		private final StringBuilder first;
+		/** Maximum number of characters of the suspend data.*/
+		private final int firstLength;
+		/** Values of the stores which are full.*/
+		private final List<String> full = new ArrayList<String>();
+		/** Characters of the actual store.*/
+		private final StringBuilder chunk = new StringBuilder();
+		/** Bytes not yet encoded.*/
+		private int bits;
+		/** Number of bytes not yet encoded.*/
+		private int pending;
+		/** <code>true</code> iff the data has been written.*/
+		private boolean closed;
+		/** <code>true</code> iff the data does not fit.*/
+		private boolean failed;
+
+		/** Ctor.
+		 * 
+		 * @param s  the state to write the suspend data to
+		 * @param i  ids of the stores
+		 * @throws IllegalArgumentException a store is not defined in
+		 *                                   the SCORM package
+		 */
+		Encoder(State s, String[] i) throws IllegalArgumentException {
+			SharedDataStore store = s.getSharedDataStore();
+			for (String id : i) {
+				if (!store.containsKey(id))
+					throw new IllegalArgumentException("The data store '" + id +
+							"' is not defined in the SCORM package!");
+				if (id.indexOf('}') >= 0 || id.indexOf(Tokenizer.ARRAY) >= 0)
+					throw new IllegalArgumentException("The id of the data store '" +
+							id + "' cannot be listed in the suspend data!");
+			}
+			state = s;
+			ids = i.clone();
+			// reserve space for the header listing all stores
+			firstLength = MAX_LENGTH - header(ids, ids.length).length();
+			if (firstLength < 4)
+				throw new IllegalArgumentException(
+						"The ids of the data stores are too long!");
+			first = new StringBuilder(Math.min(firstLength, 1024));
+		}
+
+		/** Write a byte.
+		 * 
+		 * @param b  the byte
+		 * @throws IOException  the stream has been closed or the data
+		 *                       does not fit into the suspend data and
+		 *                       the stores
+		 */
+		public void write(int b) throws IOException {
+			if (closed)
+				throw new IOException("The suspend data has been written!");
+			if (failed)
+				throw tooLong();
+			bits = bits << 8 | b & 0xff;
+			if (++pending == 3) {
+				put(ALPHABET[bits >> 18 & 0x3f]);
+				put(ALPHABET[bits >> 12 & 0x3f]);
+				put(ALPHABET[bits >> 6 & 0x3f]);
+				put(ALPHABET[bits & 0x3f]);
+				bits = 0;
+				pending = 0;
+			}
+		}
+
+		/** Encode the remaining bytes and write the stores and the
+		 *  suspend data. Nothing is written if the data does not fit.
+		 * 
+		 * @throws IOException  the data does not fit into the suspend
+		 *                       data and the stores
+		 */
+		public void close() throws IOException {
+			if (closed)
+				return;
+			closed = true;
+			if (failed)
+				throw tooLong();
+			if (pending == 1) {
+				put(ALPHABET[bits >> 2 & 0x3f]);
+				put(ALPHABET[bits << 4 & 0x3f]);
+				put('=');
+				put('=');
+			} else if (pending == 2) {
+				put(ALPHABET[bits >> 10 & 0x3f]);
+				put(ALPHABET[bits >> 4 & 0x3f]);
+				put(ALPHABET[bits << 2 & 0x3f]);
+				put('=');
+			}
+			if (chunk.length() > 0)
+				full.add(chunk.toString());
+			SharedDataStore store = state.getSharedDataStore();
+			for (int i=0, n=full.size(); i<n; i++)
+				store.put(ids[i], full.get(i));
+			first.insert(0, header(ids, full.size()));
+			state.setAttemptSuspendData(first.toString());
+		}
+
+		/** Append a character to the suspend data or to the actual
+		 *  store.
+		 * 
+		 * @param c  the character
+		 * @throws IOException  there is no further store
+		 */
+		private void put(char c) throws IOException {
+			if (first.length() < firstLength) {
+				first.append(c);
+				return;
+			}
+			if (chunk.length() == MAX_LENGTH) {
+				full.add(chunk.toString());
+				chunk.setLength(0);
+			}
+			if (full.size() == ids.length) {
+				failed = true;
+				throw tooLong();
+			}
+			chunk.append(c);
+		}
+
+		/** Create the exception reporting data which does not fit.
+		 * 
+		 * @return the exception
+		 */
+		private IOException tooLong() {
+			return new IOException("The compressed suspend data does not fit" +
+					" into the suspend data and " + ids.length + " data stores!");
+		}
+	}
+
+
+	/** Stream which decodes the base64 characters of the suspend data
+	 *  and of the stores holding the rest of the data.
+	 * 
+	 * @author Timo Scheuer
+	 * 
+	 */
+	private static final class Decoder extends InputStream {
+		/** Ids of the stores.*/
+		private final String[] ids;
+		/** The shared data store.*/
+		private final SharedDataStore store;
+		/** The actual characters.*/
+		private String chars;
+		/** Index of the next character.*/
+		private int position;
+		/** Number of stores which have been read.*/
+		private int stores;
+		/** Decoded bytes not yet returned.*/
+		private int bits;
+		/** Number of decoded bytes not yet returned.*/
+		private int available;
+		/** <code>true</code> iff the padding has been reached.*/
+		private boolean end;
+
+		/** Ctor.
+		 * 
+		 * @param v  the suspend data
+		 * @param from  index of the first character of the data
+		 * @param i  ids of the stores holding the rest of the data
+		 * @param s  the shared data store
+		 */
+		Decoder(String v, int from, String[] i, SharedDataStore s) {
+			chars = v;
+			position = from;
+			ids = i;
+			store = s;
+		}
+
+		/** Read a byte.
+		 * 
+		 * @return the byte or <code>-1</code> at the end of the data
+		 * @throws IOException  the data is not correctly encoded
+		 */
+		public int read() throws IOException {
+			if (available == 0 && !decode())
+				return -1;
+			available--;
+			return bits >> 8 * available & 0xff;
+		}
+
+		/** Read bytes.
+		 * 
+		 * @param b  the buffer
+		 * @param off  index of the first byte to read
+		 * @param len  maximum number of bytes to read
+		 * @return number of bytes read or <code>-1</code> at the end
+		 *          of the data
+		 * @throws IOException  the data is not correctly encoded
+		 */
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (len == 0)
+				return 0;
+			int n = 0;
+			for (int c; n < len && (c = read()) >= 0; n++)
+				b[off + n] = (byte)c;
+			return n == 0 ? -1 : n;
+		}
+
+		/** Decode the next four characters.
+		 * 
+		 * @return <code>false</code> at the end of the data
+		 * @throws IOException  the data is not correctly encoded
+		 */
+		private boolean decode() throws IOException {
+			if (end)
+				return false;
+			int n = 0;
+			bits = 0;
+			for (int i=0; i<4; i++) {
+				int c = next();
+				if (c < 0 && i == 0)
+					return false;
+				if (c == '=') {
+					end = true;
+					continue;
+				}
+				int v = value(c);
+				if (end || v < 0)
+					throw new IOException("The suspend data is not correctly encoded!");
+				bits = bits << 6 | v;
+				n++;
+			}
+			if (n < 2)
+				throw new IOException("The suspend data is not correctly encoded!");
+			// drop the bits of the padding
+			bits >>= 8 - 2 * n;
+			available = n - 1;
+			return true;
+		}
+
+		/** Get the next character. The stores are read when the
+		 *  characters of the suspend data have been used.
+		 * 
+		 * @return the character or <code>-1</code> at the end
+		 * @throws IOException  a store is not defined
+		 */
+		private int next() throws IOException {
+			while (position == chars.length()) {
+				if (stores == ids.length)
+					return -1;
+				String id = ids[stores++];
+				chars = store.get(id);
+				if (chars == null)
+					throw new IOException("The data store '" + id +
+							"' holding suspend data is not defined!");
+				position = 0;
+			}
+			return chars.charAt(position++);
+		}
+
+		/** Get the value of a base64 character.
+		 * 
+		 * @param c  the character or <code>-1</code>
+		 * @return the value or <code>-1</code> if the character is
+		 *          not part of the alphabet
+		 */
+		private static int value(int c) {
+			if (c >= 'A' && c <= 'Z')
+				return c - 'A';
+			if (c >= 'a' && c <= 'z')
+				return c - 'a' + 26;
+			if (c >= '0' && c <= '9')
+				return c - '0' + 52;
+			if (c == '+')
+				return 62;
+			if (c == '/')
+				return 63;
+			return -1;
+		}
+	}
+
+}
@@ -81,7 +81,7 @@ public class Time {
 	 * @param t  the session time used
 	 */
 	public void setSessionTime(TimeInterval t) {
-		ScormAdapter.adapter.setScormCharValue("cmi.session_time", t.toString());
+		ScormAdapter.adapter.setScormValue("cmi.session_time", t);
 	}
 
 	/** Get the total time used. This is the sum of all of the learner's
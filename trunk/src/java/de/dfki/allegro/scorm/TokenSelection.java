@@ -15,8 +15,7 @@
  */
 package de.dfki.allegro.scorm;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import de.dfki.allegro.scorm.token.TokenCodec;
 
 /** 
  * 
@@ -27,10 +26,8 @@ class TokenSelection<E> extends ScormElement {
 
 	/** The token which is actually used.*/
 	private E token;
-	/** The method of the token type which is used for
-	 *  parsing the token.
-	 */
-	private Method getEnumMethod;
+	/** The conversion of the token.*/
+	private TokenCodec<E> codec;
 	
 	
 	/** Ctor. No token has been selected yet.
@@ -41,18 +38,13 @@ class TokenSelection<E> extends ScormElement {
 
 	/** Ctor.
 	 * 
+	 * @param c  the conversion of the token
 	 * @param k  the SCORM access key
+	 * @see de.dfki.allegro.scorm.token.TokenCodecs
 	 */
-	public TokenSelection(Class<E> c, String k) {
+	public TokenSelection(TokenCodec<E> c, String k) {
 		super(k);
-		try {
-			getEnumMethod = c.getMethod("getEnum", String.class);
-			// the exceptions below should never been thrown
-		} catch (SecurityException e) {
-			e.printStackTrace();
-		} catch (NoSuchMethodException e) {
-			e.printStackTrace();
-		}
+		codec = c;
 	}
 
 	/** Get a selection token.
@@ -63,26 +55,11 @@ class TokenSelection<E> extends ScormElement {
 	 *                                            to make the data for this
 	 *                                            getter method available
 	 */
-	@SuppressWarnings("unchecked")
 	public E getToken() throws IllegalStateException {
 		if (key == null)
 			throw new IllegalStateException("You tried to read from a new ScormTokenSelection " +
 					"which has not been initialized yet by a setter method!");
-		String t = ScormAdapter.adapter.getScormCharValue(key);
-		try {
-			return (E)getEnumMethod.invoke(null, t);
-			// the exceptions below should never been thrown
-		} catch (IllegalArgumentException e) {
-			e.printStackTrace();
-		} catch (SecurityException e) {
-			e.printStackTrace();
-		} catch (IllegalAccessException e) {
-			e.printStackTrace();
-		} catch (InvocationTargetException e) {
-			e.printStackTrace();
-			e.getCause().printStackTrace();
-		}
-		throw new Error("Error in getToken@" + getClass().getName());
+		return codec.decode(ScormAdapter.adapter.getScormCharValue(key));
 	}
 
 	/** Replace the actual token selected by a new one.
@@ -96,7 +73,7 @@ class TokenSelection<E> extends ScormElement {
 	 * @see de.dfki.allegro.scorm.ScormAdapter#commit()
 	 * @see de.dfki.allegro.scorm.ScormAdapter#terminate()
 	 */
-	public void setToken(E t) throws UnsupportedOperationException {
+	public synchronized void setToken(E t) throws UnsupportedOperationException {
 		token = t;
 		save();
 	}
@@ -106,7 +83,7 @@ class TokenSelection<E> extends ScormElement {
 	 * @return write value
 	 */
 	protected String computeValue() {
-		return token.toString();
+		return codec.encode(token);
 	}
 
 	/** Save the string to the LMS.
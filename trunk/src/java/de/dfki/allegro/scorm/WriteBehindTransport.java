@@ -0,0 +1,343 @@
+/** Copyright 2010 Timo Scheuer
+ * 
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.dfki.allegro.scorm;
+
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/** Transport that keeps all writes until the data is persisted. Only
+ *  the last value per key is kept, so a SCO may overwrite e.g.
+ *  <code>cmi.location</code> or <code>cmi.suspend_data</code> as often
+ *  as it likes. The buffered values are sent with a single
+ *  <code>setValues</code> call just before <code>Commit("")</code> or
+ *  <code>Terminate("")</code>.
+ *
+ *  The values are sent in the order the keys have been written for the
+ *  first time. Hence dependencies between keys (e.g. the id of an
+ *  interaction has to be set before its type) are kept. Reads of
+ *  buffered keys are answered from the buffer. Reads that depend on
+ *  buffered writes, e.g. <code>_count</code> of a collection with new
+ *  elements, send the buffer first.
+ *
+ *  The transport also remembers the values the LMS is known to hold,
+ *  i.e. the values read and the values sent successfully during the
+ *  communication session. A write of such a value is not dirty and is
+ *  not buffered, so a commit only sends the elements that really
+ *  changed. The status elements are always sent, because the LMS may
+ *  derive their values from other elements.
+ *
+ *  Because a write is only sent later, <code>setValue</code> always
+ *  reports success. If the LMS rejects a buffered write then the flush
+ *  throws a <code>ScormDataAccessException</code> carrying the error
+ *  of the rejected write. Only the rejected write is dropped, the
+ *  writes buffered behind it stay in the buffer and are sent with the
+ *  next flush. If the connection fails then all writes are kept.
+ *
+ * @author Timo Scheuer
+ *
+ */
+public class WriteBehindTransport implements ScormTransport {
+
+	/** The transport which actually talks to the LMS.*/
+	private final ScormTransport delegate;
+	/** The buffered writes in the order of the first write per key.*/
+	private final Map<String, String> pending = new LinkedHashMap<String, String>();
+	/** Values the LMS is known to hold in the actual session.*/
+	private final Map<String, String> clean = new HashMap<String, String>();
+
+
+	/** Ctor.
+	 * 
+	 * @param t  the transport which actually talks to the LMS
+	 */
+	public WriteBehindTransport(ScormTransport t) {
+		delegate = t;
+	}
+
+	/** Get the transport which actually talks to the LMS.
+	 * 
+	 * @return the underlying transport
+	 */
+	public ScormTransport getDelegate() {
+		return delegate;
+	}
+
+	/** Send all buffered writes to the LMS.
+	 * 
+	 * @throws ScormDataAccessException the LMS rejected a write
+	 */
+	public synchronized void flush() throws ScormDataAccessException {
+		if (pending.isEmpty())
+			return;
+		List<String> keys = new ArrayList<String>(pending.keySet());
+		List<String> values = new ArrayList<String>(pending.values());
+		int failed = delegate.setValues(keys, values);
+		for (int i=0, n=failed < 0 ? keys.size() : failed; i<n; i++)
+			clean.put(keys.get(i), values.get(i));
+		if (failed < 0) {
+			pending.clear();
+			return;
+		}
+		// drop the sent writes and the rejected one, keep the rest
+		for (int i=0; i<=failed; i++)
+			pending.remove(keys.get(i));
+		throw new ScormDataAccessException(delegate, null);
+	}
+
+	/** Check if a write of an element has not been sent yet.
+	 * 
+	 * @param key  data model element
+	 * @return <code>true</code> iff the element has been changed since
+	 *          the last flush
+	 */
+	public synchronized boolean isDirty(String key) {
+		return pending.containsKey(key);
+	}
+
+	/** Get the number of buffered writes.
+	 * 
+	 * @return number of keys not yet sent to the LMS
+	 */
+	public synchronized int getPendingCount() {
+		return pending.size();
+	}
+
+	/** Begin the communication session.
+	 * 
+	 * @return <code>true</code> iff the LMS reports success
+	 * @throws ScormDataAccessException the connection to the LMS failed
+	 */
+	public synchronized boolean initialize() throws ScormDataAccessException {
+		flush();
+		clean.clear();
+		return delegate.initialize();
+	}
+
+	/** Send all buffered writes and end the communication session.
+	 * 
+	 * @return <code>true</code> iff the LMS reports success
+	 * @throws ScormDataAccessException the connection to the LMS failed
+	 */
+	public synchronized boolean terminate() throws ScormDataAccessException {
+		flush();
+		clean.clear();
+		return delegate.terminate();
+	}
+
+	/** Send all buffered writes and persist them.
+	 * 
+	 * @return <code>true</code> iff the LMS reports success
+	 * @throws ScormDataAccessException the connection to the LMS failed
+	 */
+	public synchronized boolean commit() throws ScormDataAccessException {
+		flush();
+		return delegate.commit();
+	}
+
+	/** Read a value of the data model. Buffered values are returned
+	 *  without asking the LMS.
+	 * 
+	 * @param key  data model element
+	 * @return the value
+	 * @throws ScormDataAccessException the connection to the LMS failed
+	 */
+	public synchronized String getValue(String key) throws ScormDataAccessException {
+		String v = pending.get(key);
+		if (v != null)
+			return v;
+		if (dependsOnPending(key))
+			flush();
+		v = delegate.getValue(key);
+		read(key, v);
+		return v;
+	}
+
+	/** Read a sequence of values. Buffered values are returned without
+	 *  asking the LMS.
+	 * 
+	 * @param keys  data model elements
+	 * @return the values in the order of the keys
+	 * @throws ScormDataAccessException the connection to the LMS failed
+	 */
+	public synchronized List<String> getValues(List<String> keys) throws ScormDataAccessException {
+		for (String k : keys)
+			if (!pending.containsKey(k) && dependsOnPending(k)) {
+				flush();
+				break;
+			}
+		List<String> missing = new ArrayList<String>(keys.size());
+		for (String k : keys)
+			if (!pending.containsKey(k))
+				missing.add(k);
+		List<String> read = missing.isEmpty() ? missing : delegate.getValues(missing);
+		for (int i=0, n=missing.size(); i<n; i++)
+			read(missing.get(i), read.get(i));
+		List<String> l = new ArrayList<String>(keys.size());
+		int i = 0;
+		for (String k : keys) {
+			String v = pending.get(k);
+			l.add(v != null ? v : read.get(i++));
+		}
+		return l;
+	}
+
+	/** Send all buffered writes and read all values described by a
+	 *  list of key templates.
+	 * 
+	 * @param templates  key templates
+	 * @return all read values by key
+	 * @throws ScormDataAccessException the connection to the LMS failed
+	 */
+	public synchronized Map<String, String> getValueTree(List<String> templates) throws ScormDataAccessException {
+		flush();
+		Map<String, String> m = delegate.getValueTree(templates);
+		for (Map.Entry<String, String> e : m.entrySet())
+			read(e.getKey(), e.getValue());
+		return m;
+	}
+
+	/** Buffer a write. A value that has been buffered before is
+	 *  replaced. A write of the value the LMS already holds is not
+	 *  buffered and drops a buffered write of the same element.
+	 * 
+	 * @param key  data model element
+	 * @param value  the new value
+	 * @return always <code>true</code>
+	 */
+	public synchronized boolean setValue(String key, String value) {
+		if (value.equals(clean.get(key)) && !isDerived(key))
+			pending.remove(key);
+		else
+			pending.put(key, value);
+		return true;
+	}
+
+	/** Buffer a sequence of writes.
+	 * 
+	 * @param keys  data model elements
+	 * @param values  the new values (same order as the keys)
+	 * @return always <code>-1</code>
+	 */
+	public synchronized int setValues(List<String> keys, List<String> values) {
+		for (int i=0, n=keys.size(); i<n; i++)
+			setValue(keys.get(i), values.get(i));
+		return -1;
+	}
+
+	/** Get the error code of the last call that reached the LMS.
+	 * 
+	 * @return SCORM error code
+	 * @throws ScormDataAccessException the connection to the LMS failed
+	 */
+	public synchronized String getLastError() throws ScormDataAccessException {
+		return delegate.getLastError();
+	}
+
+	/** Get the textual description of an error code.
+	 * 
+	 * @param code  SCORM error code
+	 * @return error description
+	 * @throws ScormDataAccessException the connection to the LMS failed
+	 */
+	public synchronized String getErrorString(String code) throws ScormDataAccessException {
+		return delegate.getErrorString(code);
+	}
+
+	/** Get LMS specific details of an error code.
+	 * 
+	 * @param code  SCORM error code
+	 * @return LMS specific error details
+	 * @throws ScormDataAccessException the connection to the LMS failed
+	 */
+	public synchronized String getDiagnostic(String code) throws ScormDataAccessException {
+		return delegate.getDiagnostic(code);
+	}
+
+	/** Remember a value read from the LMS. Empty values are not
+	 *  remembered, because they are also returned for errors.
+	 * 
+	 * @param key  data model element
+	 * @param value  the value returned by the LMS
+	 */
+	private void read(String key, String value) {
+		if (value != null && value.length() > 0)
+			clean.put(key, value);
+	}
+
+	/** Check if the LMS may derive the value of an element from other
+	 *  elements. Such elements are never considered clean.
+	 * 
+	 * @param key  data model element
+	 * @return <code>true</code> iff the element is a status element
+	 */
+	private static boolean isDerived(String key) {
+		return key.endsWith("completion_status") || key.endsWith("success_status");
+	}
+
+	/** Check if the value of a key that is not buffered may depend on
+	 *  buffered writes. This is the case for the <code>_count</code> of
+	 *  a collection and for the elements of a collection entry if
+	 *  writes to the same collection are buffered.
+	 * 
+	 * @param key  data model element
+	 * @return <code>true</code> iff the buffer has to be sent before
+	 *          the key is read
+	 */
+	private boolean dependsOnPending(String key) {
+		if (pending.isEmpty())
+			return false;
+		String prefix;
+		if (key.endsWith("._count"))
+			prefix = key.substring(0, key.length() - 6);
+		else {
+			// prefix up to the last collection index, e.g. "cmi.interactions.3."
+			int end = -1;
+			for (int i=key.indexOf('.'); i >= 0; ) {
+				int next = key.indexOf('.', i + 1);
+				if (next > i + 1 && isIndex(key, i + 1, next))
+					end = next + 1;
+				i = next;
+			}
+			if (end < 0)
+				return false;
+			prefix = key.substring(0, end);
+		}
+		for (String k : pending.keySet())
+			if (k.startsWith(prefix))
+				return true;
+		return false;
+	}
+
+	/** Check if a part of a key is a collection index.
+	 * 
+	 * @param s  the key
+	 * @param begin  first character of the part
+	 * @param end  end of the part (exclusive)
+	 * @return <code>true</code> iff the part consists of digits only
+	 */
+	private static boolean isIndex(String s, int begin, int end) {
+		for (int i=begin; i<end; i++)
+			if (!Character.isDigit(s.charAt(i)))
+				return false;
+		return true;
+	}
+
+}
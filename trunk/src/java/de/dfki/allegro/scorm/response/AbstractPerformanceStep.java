@@ -15,7 +15,12 @@
  */
 package de.dfki.allegro.scorm.response;
 
+import java.io.IOException;
+
 import de.dfki.allegro.scorm.annotation.ScormSizeLimit;
+import de.dfki.allegro.scorm.util.ScormEncodable;
+import de.dfki.allegro.scorm.util.ScormEncoding;
+import de.dfki.allegro.scorm.util.Tokenizer;
 
 /** Base class of performance steps with a single numerical
  *  value and with range numerical values.
@@ -23,7 +28,7 @@ import de.dfki.allegro.scorm.annotation.ScormSizeLimit;
  * @author Timo Scheuer
  *
  */
-public abstract class AbstractPerformanceStep<N> {
+public abstract class AbstractPerformanceStep<N> implements ScormEncodable {
 
 	/** Step name (also used as synchronization object).*/
 	protected String stepName;
@@ -47,7 +52,7 @@ public abstract class AbstractPerformanceStep<N> {
 	 *            character string)
 	 */
 	public AbstractPerformanceStep(String e) {
-		String[] a = e.split("\\[.\\]");
+		String[] a = Tokenizer.split(e, Tokenizer.RECORD, -1);
 		setStepName(a[0]);
 		try {
 			parseNumerical(a[1]);
@@ -94,6 +99,7 @@ public abstract class AbstractPerformanceStep<N> {
 	 */
 	@ScormSizeLimit(250)
 	public void setStepName(String n) {
+		AbstractPerformanceStepConstraints.setStepName(n);
 		stepName = n;
 	}
 
@@ -122,6 +128,7 @@ public abstract class AbstractPerformanceStep<N> {
 	 */
 	@ScormSizeLimit(250)
 	public void setStepAnswerString(String a) {
+		AbstractPerformanceStepConstraints.setStepAnswerString(a);
 		synchronized (stepName) {
 			stepAnswerString = a;
 			switchToStringData();
@@ -185,8 +192,25 @@ public abstract class AbstractPerformanceStep<N> {
 	 * @return <code>String</code> representation.
 	 */
 	public String toString() {
-		return stepName + "[.]" +
-			(isAnswerNumerical() ? stepAnswerNumeric.toString() : stepAnswerString);
+		return ScormEncoding.toString(this);
+	}
+
+	/** Append the SCORM encoding to a character sequence. A numerical
+	 *  answer which is encodable itself (e.g. a range) is written
+	 *  directly into the character sequence.
+	 * 
+	 * @param a  the character sequence to append to
+	 * @return the character sequence
+	 * @throws IOException  thrown by the character sequence
+	 */
+	public Appendable encodeTo(Appendable a) throws IOException {
+		a.append(stepName).append(Tokenizer.RECORD);
+		N n = stepAnswerNumeric;
+		if (n == null)
+			return a.append(stepAnswerString);
+		if (n instanceof ScormEncodable)
+			return ((ScormEncodable)n).encodeTo(a);
+		return a.append(n.toString());
 	}
 
 	/** Parse an encoded numerical and initialize this object
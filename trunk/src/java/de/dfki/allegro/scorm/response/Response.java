@@ -15,14 +15,18 @@
  */
 package de.dfki.allegro.scorm.response;
 
+import java.io.IOException;
+
 import de.dfki.allegro.scorm.token.InteractionType;
+import de.dfki.allegro.scorm.util.ScormEncodable;
+import de.dfki.allegro.scorm.util.ScormEncoding;
 
 /** Base class of all response types
  * 
  * @author Timo Scheuer
  *
  */
-abstract public class Response<E>  {
+abstract public class Response<E> implements ScormEncodable {
 	
 	/** The data of the response type.*/
 	protected E typeData;
@@ -52,5 +56,15 @@ abstract public class Response<E>  {
 	 * 
 	 * @return <code>String</code> representation.
 	 */
-	abstract public String toString();
+	public String toString() {
+		return ScormEncoding.toString(this);
+	}
+
+	/** Append the SCORM encoding to a character sequence.
+	 * 
+	 * @param a  the character sequence to append to
+	 * @return the character sequence
+	 * @throws IOException  thrown by the character sequence
+	 */
+	abstract public Appendable encodeTo(Appendable a) throws IOException;
 }
@@ -17,6 +17,7 @@ package de.dfki.allegro.scorm.response;
 
 
 
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
@@ -25,6 +26,7 @@ import de.dfki.allegro.scorm.ScormObjectSizeOutOfLimitException;
 import de.dfki.allegro.scorm.annotation.ScormIdentifier;
 import de.dfki.allegro.scorm.annotation.ScormSizeLimit;
 import de.dfki.allegro.scorm.token.InteractionType;
+import de.dfki.allegro.scorm.util.Tokenizer;
 
 /** A (multiple) choice response according to the SCORM 2004
  *  specification.
@@ -50,7 +52,7 @@ public class ResponseChoice extends Response<Set<String>> {
 	 * @param s  encoded <code>String</code>
 	 */
 	public ResponseChoice(String s) {
-		String[] array = s.split("\\[,\\]");
+		String[] array = Tokenizer.split(s, Tokenizer.ARRAY);
 		typeData = new HashSet<String>(Arrays.asList(array));
 	}
 
@@ -73,36 +75,45 @@ public class ResponseChoice extends Response<Set<String>> {
 	 */
 	@ScormSizeLimit(36)
 	public void setValue(Set<String> v) throws ScormObjectSizeOutOfLimitException {
+		ResponseChoiceConstraints.setValue(v);
 		typeData = v;
 	}
 
-	/** Get <code>String</code> representation.
+	/** Append the SCORM encoding to a character sequence.
 	 * 
-	 * @return <code>String</code> representation.
+	 * @param a  the character sequence to append to
+	 * @return the character sequence
+	 * @throws IOException  thrown by the character sequence
 	 */
-	public String toString() {
-		StringBuilder b = new StringBuilder();
-		for (String i : typeData)
-			addToStringArrayEncoding(i, b);
-		return b.toString();
+	public Appendable encodeTo(Appendable a) throws IOException {
+		boolean first = true;
+		for (String i : typeData) {
+			addToStringArrayEncoding(i, a, first);
+			first = false;
+		}
+		return a;
 	}
 
-	/** Add a character-based element to a <code>StringBuilder</code>
+	/** Add a character-based element to a character sequence
 	 *  that is used for encoding a whole collection of this
 	 *  character-based elements. Element separators are added
 	 *  automatically.
 	 *  
-	 * @param b  the complete encoded collection (may be empty at start) 
 	 * @param s  the <code>String</code> to add.
-	 * @return the new <code>StringBuilder</code> with the given
+	 * @param a  the complete encoded collection
+	 * @param first  <code>true</code> iff this is the first element
+	 * @return the character sequence with the given
 	 *          <code>String</code> added.
+	 * @throws IOException  thrown by the character sequence
 	 */
 	@ScormIdentifier
 	@ScormSizeLimit(250)
-	private static StringBuilder addToStringArrayEncoding(String s, StringBuilder b) {
-		if (b.length() > 0)
-			b.append("[,]");
-		return b.append(s);
+	private static Appendable addToStringArrayEncoding(String s, Appendable a, boolean first)
+	throws IOException {
+		ResponseChoiceConstraints.addToStringArrayEncoding(s, a, first);
+		if (!first)
+			a.append("[,]");
+		return a.append(s);
 	}
 	
 }
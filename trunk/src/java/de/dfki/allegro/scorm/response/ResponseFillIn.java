@@ -16,12 +16,14 @@
 package de.dfki.allegro.scorm.response;
 
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
 import de.dfki.allegro.scorm.annotation.ScormSizeLimit;
 import de.dfki.allegro.scorm.token.InteractionType;
 import de.dfki.allegro.scorm.util.LocalizedString;
+import de.dfki.allegro.scorm.util.Tokenizer;
 
 /** A fill-in response according to the SCORM 2004
  *  specification.
@@ -69,35 +71,44 @@ public class ResponseFillIn extends Response<List<LocalizedString>> {
 	 */
 	@ScormSizeLimit(value=10,min=1)
 	public void setValue(List<LocalizedString> v) {
+		ResponseFillInConstraints.setValue(v);
 		typeData = v;
 	}
 
-	/** Get <code>String</code> representation.
+	/** Append the SCORM encoding to a character sequence.
 	 * 
-	 * @return <code>String</code> representation.
+	 * @param a  the character sequence to append to
+	 * @return the character sequence
+	 * @throws IOException  thrown by the character sequence
 	 */
-	public String toString() {
-		StringBuilder b = new StringBuilder();
-		for (LocalizedString i : typeData)
-			addToStringArrayEncoding(i, b);
-		return b.toString();
+	public Appendable encodeTo(Appendable a) throws IOException {
+		boolean first = true;
+		for (LocalizedString i : typeData) {
+			addToStringArrayEncoding(i, a, first);
+			first = false;
+		}
+		return a;
 	}
 
-	/** Add a character-based element to a <code>StringBuilder</code>
+	/** Add a character-based element to a character sequence
 	 *  that is used for encoding a whole collection of this
 	 *  character-based elements. Element separators are added
 	 *  automatically.
 	 *  
-	 * @param b  the complete encoded collection (may be empty at start) 
 	 * @param s  the <code>String</code> to add.
-	 * @return the new <code>StringBuilder</code> with the given
+	 * @param a  the complete encoded collection
+	 * @param first  <code>true</code> iff this is the first element
+	 * @return the character sequence with the given
 	 *          <code>String</code> added.
+	 * @throws IOException  thrown by the character sequence
 	 */
 	@ScormSizeLimit(250)
-	private static StringBuilder addToStringArrayEncoding(LocalizedString s, StringBuilder b) {
-		if (b.length() > 0)
-			b.append("[,]");
-		return b.append(s);
+	private static Appendable addToStringArrayEncoding(LocalizedString s, Appendable a, boolean first)
+	throws IOException {
+		ResponseFillInConstraints.addToStringArrayEncoding(s, a, first);
+		if (!first)
+			a.append("[,]");
+		return s.encodeTo(a);
 	}
 
 	/** Parses an encoded <code>String</code> and fills
@@ -105,9 +116,9 @@ public class ResponseFillIn extends Response<List<LocalizedString>> {
 	 * 
 	 */
 	protected void parse(String s) {
-		String[] a = s.split("\\[,\\]");
-		typeData = new ArrayList<LocalizedString>(a.length);
-		for (String as : a)
-			typeData.add(new LocalizedString(as));
+		typeData = new ArrayList<LocalizedString>();
+		Tokenizer t = new Tokenizer(Tokenizer.ARRAY).reset(s).skipTrailingEmpty();
+		while (t.next())
+			typeData.add(new LocalizedString(t.token()));
 	}
 }
@@ -16,6 +16,8 @@
 package de.dfki.allegro.scorm.response;
 
 
+import java.io.IOException;
+
 import de.dfki.allegro.scorm.annotation.ScormIdentifier;
 import de.dfki.allegro.scorm.annotation.ScormSizeLimit;
 import de.dfki.allegro.scorm.token.InteractionType;
@@ -65,14 +67,17 @@ public class ResponseLikert extends Response<String> {
 	@ScormSizeLimit(250)
 	@ScormIdentifier
 	public void setValue(String v) {
+		ResponseLikertConstraints.setValue(v);
 		typeData = v;
 	}
 
-	/** Get <code>String</code> representation.
+	/** Append the SCORM encoding to a character sequence.
 	 * 
-	 * @return <code>String</code> representation.
+	 * @param a  the character sequence to append to
+	 * @return the character sequence
+	 * @throws IOException  thrown by the character sequence
 	 */
-	public String toString() {
-		return typeData;
+	public Appendable encodeTo(Appendable a) throws IOException {
+		return a.append(typeData);
 	}
 }
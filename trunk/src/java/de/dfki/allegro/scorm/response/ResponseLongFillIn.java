@@ -16,6 +16,8 @@
 package de.dfki.allegro.scorm.response;
 
 
+import java.io.IOException;
+
 import de.dfki.allegro.scorm.annotation.ScormSizeLimit;
 import de.dfki.allegro.scorm.token.InteractionType;
 import de.dfki.allegro.scorm.util.LocalizedString;
@@ -64,15 +66,18 @@ public class ResponseLongFillIn extends Response<LocalizedString> {
 	 */
 	@ScormSizeLimit(4000)
 	public void setValue(LocalizedString v) {
+		ResponseLongFillInConstraints.setValue(v);
 		typeData = v;
 	}
 
-	/** Get <code>String</code> representation.
+	/** Append the SCORM encoding to a character sequence.
 	 * 
-	 * @return <code>String</code> representation.
+	 * @param a  the character sequence to append to
+	 * @return the character sequence
+	 * @throws IOException  thrown by the character sequence
 	 */
-	public String toString() {
-		return typeData.toString();
+	public Appendable encodeTo(Appendable a) throws IOException {
+		return typeData.encodeTo(a);
 	}
 
 	/** Parses an encoded <code>String</code> and fills
@@ -16,12 +16,14 @@
 package de.dfki.allegro.scorm.response;
 
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedList;
 
 import de.dfki.allegro.scorm.annotation.ScormSizeLimit;
 import de.dfki.allegro.scorm.token.InteractionType;
+import de.dfki.allegro.scorm.util.Tokenizer;
 
 /** A matching response according to the SCORM 2004
  *  specification.
@@ -47,10 +49,10 @@ public class ResponseMatching extends Response<Collection<SingleMatch>> {
 	 * @param s  encoded <code>String</code>
 	 */
 	public ResponseMatching(String s) {
-		String[] a = s.split("\\[,\\]");
-		typeData = new ArrayList<SingleMatch>(a.length);
-		for (String sa : a)
-			typeData.add(new SingleMatch(sa));
+		typeData = new ArrayList<SingleMatch>();
+		Tokenizer t = new Tokenizer(Tokenizer.ARRAY).reset(s).skipTrailingEmpty();
+		while (t.next())
+			typeData.add(new SingleMatch(t.token()));
 	}
 
 	/** Get the interaction type.
@@ -71,24 +73,26 @@ public class ResponseMatching extends Response<Collection<SingleMatch>> {
 	 */
 	@ScormSizeLimit(36)
 	public void setValue(Collection<SingleMatch> v) {
+		ResponseMatchingConstraints.setValue(v);
 		typeData = v;
 	}
 
-	/** Get <code>String</code> representation.
+	/** Append the SCORM encoding to a character sequence.
 	 * 
-	 * @return <code>String</code> representation.
+	 * @param a  the character sequence to append to
+	 * @return the character sequence
+	 * @throws IOException  thrown by the character sequence
 	 */
-	public String toString() {
-		StringBuilder b = new StringBuilder();
+	public Appendable encodeTo(Appendable a) throws IOException {
 		boolean first = true;
 		for (SingleMatch i : typeData) {
 			if (first)
 				first = false;
 			else
-				b.append("[,]");
-			b.append(i);
+				a.append("[,]");
+			i.encodeTo(a);
 		}
-		return b.toString();
+		return a;
 	}
 
 }
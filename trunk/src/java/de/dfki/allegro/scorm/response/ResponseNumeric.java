@@ -16,6 +16,8 @@
 package de.dfki.allegro.scorm.response;
 
 
+import java.io.IOException;
+
 import de.dfki.allegro.scorm.token.InteractionType;
 
 /** A numeric response according to the SCORM 2004
@@ -62,11 +64,13 @@ public class ResponseNumeric extends Response<Float> {
 		typeData = v;
 	}
 
-	/** Get <code>String</code> representation.
+	/** Append the SCORM encoding to a character sequence.
 	 * 
-	 * @return <code>String</code> representation.
+	 * @param a  the character sequence to append to
+	 * @return the character sequence
+	 * @throws IOException  thrown by the character sequence
 	 */
-	public String toString() {
-		return typeData.toString();
+	public Appendable encodeTo(Appendable a) throws IOException {
+		return a.append(typeData.toString());
 	}
 }
@@ -16,6 +16,8 @@
 package de.dfki.allegro.scorm.response;
 
 
+import java.io.IOException;
+
 import de.dfki.allegro.scorm.annotation.ScormSizeLimit;
 import de.dfki.allegro.scorm.token.InteractionType;
 
@@ -63,14 +65,17 @@ public class ResponseOther extends Response<String> {
 	 */
 	@ScormSizeLimit(4000)
 	public void setValue(String v) {
+		ResponseOtherConstraints.setValue(v);
 		typeData = v;
 	}
 
-	/** Get <code>String</code> representation.
+	/** Append the SCORM encoding to a character sequence.
 	 * 
-	 * @return <code>String</code> representation.
+	 * @param a  the character sequence to append to
+	 * @return the character sequence
+	 * @throws IOException  thrown by the character sequence
 	 */
-	public String toString() {
-		return typeData;
+	public Appendable encodeTo(Appendable a) throws IOException {
+		return a.append(typeData);
 	}
 }
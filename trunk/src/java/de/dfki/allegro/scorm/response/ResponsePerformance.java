@@ -16,12 +16,14 @@
 package de.dfki.allegro.scorm.response;
 
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 
 import de.dfki.allegro.scorm.annotation.ScormSizeLimit;
 import de.dfki.allegro.scorm.token.InteractionType;
+import de.dfki.allegro.scorm.util.Tokenizer;
 
 
 /** A performance response according to the SCORM 2004
@@ -48,10 +50,10 @@ public class ResponsePerformance extends Response<List<PerformanceStep>> {
 	 * @param s  encoded <code>String</code>
 	 */
 	public ResponsePerformance(String s) {
-		String[] a = s.split("\\[,\\]");
-		typeData = new ArrayList<PerformanceStep>(a.length);
-		for (String sa : a)
-			typeData.add(new PerformanceStep(sa));
+		typeData = new ArrayList<PerformanceStep>();
+		Tokenizer t = new Tokenizer(Tokenizer.ARRAY).reset(s).skipTrailingEmpty();
+		while (t.next())
+			typeData.add(new PerformanceStep(t.token()));
 	}
 
 	/** Get the interaction type.
@@ -72,23 +74,25 @@ public class ResponsePerformance extends Response<List<PerformanceStep>> {
 	 */
 	@ScormSizeLimit(value=250,min=1)
 	public void setValue(List<PerformanceStep> v) {
+		ResponsePerformanceConstraints.setValue(v);
 		typeData = v;
 	}
 
-	/** Get <code>String</code> representation.
+	/** Append the SCORM encoding to a character sequence.
 	 * 
-	 * @return <code>String</code> representation.
+	 * @param a  the character sequence to append to
+	 * @return the character sequence
+	 * @throws IOException  thrown by the character sequence
 	 */
-	public String toString() {
-		StringBuilder b = new StringBuilder();
+	public Appendable encodeTo(Appendable a) throws IOException {
 		boolean first = true;
 		for (PerformanceStep i : typeData) {
 			if (first)
 				first = false;
 			else
-				b.append("[,]");
-			b.append(i);
+				a.append("[,]");
+			i.encodeTo(a);
 		}
-		return b.toString();
+		return a;
 	}
 }
@@ -16,6 +16,7 @@
 package de.dfki.allegro.scorm.response;
 
 
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
@@ -23,6 +24,7 @@ import java.util.List;
 import de.dfki.allegro.scorm.annotation.ScormIdentifier;
 import de.dfki.allegro.scorm.annotation.ScormSizeLimit;
 import de.dfki.allegro.scorm.token.InteractionType;
+import de.dfki.allegro.scorm.util.Tokenizer;
 
 
 /** A sequencing response according to the SCORM 2004
@@ -48,7 +50,7 @@ public class ResponseSequencing extends Response<List<String>> {
 	 * @param s  encoded <code>String</code>
 	 */
 	public ResponseSequencing(String s) {
-		typeData = Arrays.asList(s.split("\\[,\\]"));
+		typeData = Arrays.asList(Tokenizer.split(s, Tokenizer.ARRAY));
 	}
 
 	/** Get the interaction type.
@@ -69,35 +71,44 @@ public class ResponseSequencing extends Response<List<String>> {
 	 */
 	@ScormSizeLimit(36)
 	public void setValue(List<String> v) {
+		ResponseSequencingConstraints.setValue(v);
 		typeData = v;
 	}
 	
-	/** Get <code>String</code> representation.
+	/** Append the SCORM encoding to a character sequence.
 	 * 
-	 * @return <code>String</code> representation.
+	 * @param a  the character sequence to append to
+	 * @return the character sequence
+	 * @throws IOException  thrown by the character sequence
 	 */
-	public String toString() {
-		StringBuilder b = new StringBuilder();
-		for (String i : typeData)
-			addToStringArrayEncoding(i, b);
-		return b.toString();
+	public Appendable encodeTo(Appendable a) throws IOException {
+		boolean first = true;
+		for (String i : typeData) {
+			addToStringArrayEncoding(i, a, first);
+			first = false;
+		}
+		return a;
 	}
 
-	/** Add a character-based element to a <code>StringBuilder</code>
+	/** Add a character-based element to a character sequence
 	 *  that is used for encoding a whole collection of this
 	 *  character-based elements. Element separators are added
 	 *  automatically.
 	 *  
-	 * @param b  the complete encoded collection (may be empty at start) 
 	 * @param s  the <code>String</code> to add.
-	 * @return the new <code>StringBuilder</code> with the given
+	 * @param a  the complete encoded collection
+	 * @param first  <code>true</code> iff this is the first element
+	 * @return the character sequence with the given
 	 *          <code>String</code> added.
+	 * @throws IOException  thrown by the character sequence
 	 */
 	@ScormSizeLimit(250)
 	@ScormIdentifier
-	private static StringBuilder addToStringArrayEncoding(String s, StringBuilder b) {
-		if (b.length() > 0)
-			b.append("[,]");
-		return b.append(s);
+	private static Appendable addToStringArrayEncoding(String s, Appendable a, boolean first)
+	throws IOException {
+		ResponseSequencingConstraints.addToStringArrayEncoding(s, a, first);
+		if (!first)
+			a.append("[,]");
+		return a.append(s);
 	}
 }
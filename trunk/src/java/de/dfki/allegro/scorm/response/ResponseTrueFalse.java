@@ -15,6 +15,8 @@
  */
 package de.dfki.allegro.scorm.response;
 
+import java.io.IOException;
+
 import de.dfki.allegro.scorm.token.InteractionType;
 
 /** A true-false response according to the SCORM 2004
@@ -56,11 +58,13 @@ public class ResponseTrueFalse extends Response<Boolean> {
 		typeData = v;
 	}
 
-	/** Get <code>String</code> representation.
+	/** Append the SCORM encoding to a character sequence.
 	 * 
-	 * @return <code>String</code> representation.
+	 * @param a  the character sequence to append to
+	 * @return the character sequence
+	 * @throws IOException  thrown by the character sequence
 	 */
-	public String toString() {
-		return typeData ? "true" : "false";
+	public Appendable encodeTo(Appendable a) throws IOException {
+		return a.append(typeData ? "true" : "false");
 	}
 }
@@ -15,8 +15,13 @@
  */
 package de.dfki.allegro.scorm.response;
 
+import java.io.IOException;
+
 import de.dfki.allegro.scorm.annotation.ScormIdentifier;
 import de.dfki.allegro.scorm.annotation.ScormSizeLimit;
+import de.dfki.allegro.scorm.util.ScormEncodable;
+import de.dfki.allegro.scorm.util.ScormEncoding;
+import de.dfki.allegro.scorm.util.Tokenizer;
 
 /** A single match is a single mapping from one
  * source short identifier to one target
@@ -28,7 +33,7 @@ import de.dfki.allegro.scorm.annotation.ScormSizeLimit;
  * @author Timo Scheuer
  *
  */
-public class SingleMatch {
+public class SingleMatch implements ScormEncodable {
 
 	/** Source short identifier.*/
 	private String source;
@@ -52,7 +57,7 @@ public class SingleMatch {
 	 *            both source and target
 	 */
 	public SingleMatch(String e) {
-		String[] a = e.split("\\[.\\]");
+		String[] a = Tokenizer.split(e, Tokenizer.RECORD, -1);
 		setSource(a[0]);
 		setTarget(a[1]);
 	}
@@ -78,6 +83,7 @@ public class SingleMatch {
 	@ScormSizeLimit(250)
 	@ScormIdentifier
 	public void setSource(String s) {
+		SingleMatchConstraints.setSource(s);
 		source = s;
 	}
 
@@ -103,6 +109,7 @@ public class SingleMatch {
 	@ScormSizeLimit(250)
 	@ScormIdentifier
 	public void setTarget(String t) {
+		SingleMatchConstraints.setTarget(t);
 		target = t;
 	}
 
@@ -111,6 +118,16 @@ public class SingleMatch {
 	 * @return <code>String</code> representation.
 	 */
 	public String toString() {
-		return source + "[.]" + target;
+		return ScormEncoding.toString(this);
+	}
+
+	/** Append the SCORM encoding to a character sequence.
+	 * 
+	 * @param a  the character sequence to append to
+	 * @return the character sequence
+	 * @throws IOException  thrown by the character sequence
+	 */
+	public Appendable encodeTo(Appendable a) throws IOException {
+		return a.append(source).append(Tokenizer.RECORD).append(target);
 	}
 }
@@ -16,6 +16,7 @@
 package de.dfki.allegro.scorm.response.correct;
 
 import de.dfki.allegro.scorm.token.InteractionType;
+import de.dfki.allegro.scorm.util.ScormEncodable;
 
 /** Interface that is implemented by all correct responses.
  *  Some correct responses a similar to learner responses
@@ -24,7 +25,7 @@ import de.dfki.allegro.scorm.token.InteractionType;
  * @author Timo Scheuer
  *
  */
-public interface CorrectResponse {
+public interface CorrectResponse extends ScormEncodable {
 
 	/** Get the interaction type.
 	 *  
@@ -15,6 +15,8 @@
  */
 package de.dfki.allegro.scorm.response.correct;
 
+import java.io.IOException;
+
 import de.dfki.allegro.scorm.response.ResponseFillIn;
 
 
@@ -103,15 +105,16 @@ public class CorrectResponseFillIn extends ResponseFillIn implements CorrectResp
 		return orderMatters;
 	}
 	
-	/** Get <code>String</code> representation.
+	/** Append the SCORM encoding to a character sequence.
 	 * 
-	 * @return <code>String</code> representation.
+	 * @param a  the character sequence to append to
+	 * @return the character sequence
+	 * @throws IOException  thrown by the character sequence
 	 */
-	public String toString() {
-		return String.format("{case_matters=%s}{order_matters=%s}%s",
-				Boolean.toString(caseMatters),
-				Boolean.toString(orderMatters),
-				super.toString());
+	public Appendable encodeTo(Appendable a) throws IOException {
+		a.append("{case_matters=").append(Boolean.toString(caseMatters)).append('}');
+		a.append("{order_matters=").append(Boolean.toString(orderMatters)).append('}');
+		return super.encodeTo(a);
 	}
 
 	/** Parses an encoded <code>String</code> and fills
@@ -15,6 +15,8 @@
  */
 package de.dfki.allegro.scorm.response.correct;
 
+import java.io.IOException;
+
 import de.dfki.allegro.scorm.response.ResponseLongFillIn;
 
 
@@ -73,14 +75,15 @@ public class CorrectResponseLongFillIn extends ResponseLongFillIn implements Cor
 		return caseMatters;
 	}
 
-	/** Get <code>String</code> representation.
+	/** Append the SCORM encoding to a character sequence.
 	 * 
-	 * @return <code>String</code> representation.
+	 * @param a  the character sequence to append to
+	 * @return the character sequence
+	 * @throws IOException  thrown by the character sequence
 	 */
-	public String toString() {
-		return String.format("{case_matters=%s}%s",
-				Boolean.toString(caseMatters),
-				super.toString());
+	public Appendable encodeTo(Appendable a) throws IOException {
+		a.append("{case_matters=").append(Boolean.toString(caseMatters)).append('}');
+		return super.encodeTo(a);
 	}
 
 	/** Parses an encoded <code>String</code> and fills
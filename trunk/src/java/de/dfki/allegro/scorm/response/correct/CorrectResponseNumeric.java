@@ -15,6 +15,8 @@
  */
 package de.dfki.allegro.scorm.response.correct;
 
+import java.io.IOException;
+
 import de.dfki.allegro.scorm.response.Response;
 import de.dfki.allegro.scorm.token.InteractionType;
 import de.dfki.allegro.scorm.util.NumericRange;
@@ -62,12 +64,14 @@ public class CorrectResponseNumeric extends Response<NumericRange> implements Co
 		typeData = v;
 	}
 
-	/** Get <code>String</code> representation.
+	/** Append the SCORM encoding to a character sequence.
 	 * 
-	 * @return <code>String</code> representation.
+	 * @param a  the character sequence to append to
+	 * @return the character sequence
+	 * @throws IOException  thrown by the character sequence
 	 */
-	public String toString() {
-		return typeData.toString();
+	public Appendable encodeTo(Appendable a) throws IOException {
+		return typeData.encodeTo(a);
 	}
 
 }
@@ -17,6 +17,7 @@ package de.dfki.allegro.scorm.response.correct;
 
 
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
@@ -24,6 +25,7 @@ import java.util.List;
 import de.dfki.allegro.scorm.annotation.ScormSizeLimit;
 import de.dfki.allegro.scorm.response.Response;
 import de.dfki.allegro.scorm.token.InteractionType;
+import de.dfki.allegro.scorm.util.Tokenizer;
 
 
 /** A performance response according to the SCORM 2004
@@ -54,10 +56,10 @@ public class CorrectResponsePerformance extends Response<List<PerformanceStepRan
 	 * @param s  encoded <code>String</code>
 	 */
 	public CorrectResponsePerformance(String s) {
-		String[] a = s.split("\\[,\\]");
-		typeData = new ArrayList<PerformanceStepRange>(a.length);
-		for (String sa : a)
-			typeData.add(new PerformanceStepRange(sa));
+		typeData = new ArrayList<PerformanceStepRange>();
+		Tokenizer t = new Tokenizer(Tokenizer.ARRAY).reset(s).skipTrailingEmpty();
+		while (t.next())
+			typeData.add(new PerformanceStepRange(t.token()));
 	}
 
 	/** Get the interaction type.
@@ -78,25 +80,27 @@ public class CorrectResponsePerformance extends Response<List<PerformanceStepRan
 	 */
 	@ScormSizeLimit(value=125,min=1)
 	public void setValue(List<PerformanceStepRange> v) {
+		CorrectResponsePerformanceConstraints.setValue(v);
 		typeData = v;
 	}
 
-	/** Get <code>String</code> representation.
+	/** Append the SCORM encoding to a character sequence.
 	 * 
-	 * @return <code>String</code> representation.
+	 * @param a  the character sequence to append to
+	 * @return the character sequence
+	 * @throws IOException  thrown by the character sequence
 	 */
-	public String toString() {
-		StringBuilder b = new StringBuilder();
-		b.append("{order_matters=").append(orderMatters).append("}");
+	public Appendable encodeTo(Appendable a) throws IOException {
+		a.append("{order_matters=").append(Boolean.toString(orderMatters)).append('}');
 		boolean first = true;
 		for (PerformanceStepRange i : typeData) {
 			if (first)
 				first = false;
 			else
-				b.append("[,]");
-			b.append(i);
+				a.append("[,]");
+			i.encodeTo(a);
 		}
-		return b.toString();
+		return a;
 	}
 	
 	/** Set a flag that decides whether order will matter.
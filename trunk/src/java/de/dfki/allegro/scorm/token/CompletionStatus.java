@@ -15,6 +15,9 @@
  */
 package de.dfki.allegro.scorm.token;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import de.dfki.allegro.scorm.ScormAdapter;
 
 
@@ -31,8 +34,17 @@ public enum CompletionStatus {
 	UNKNOWN("unknown");
 	
 
+	/** Mapping between the values and the enums.*/
+	private static Map<String, CompletionStatus> map;
 	/** Status of the actual token. */
 	private String status;
+
+	static {
+		CompletionStatus[] a = CompletionStatus.values();
+		map = new HashMap<String, CompletionStatus>(2 * a.length);
+		for (CompletionStatus t : a)
+			map.put(t.status, t);
+	}
 	
 	
 	/** Ctor.
@@ -57,12 +69,9 @@ public enum CompletionStatus {
 	 * @return the corresponding enum type
 	 */
 	public static CompletionStatus getEnum(String s) {
-		if (COMPLETED.status.equals(s))
-			return COMPLETED;
-		if (INCOMPLETE.status.equals(s))
-			return INCOMPLETE;
-		if (NOT_ATTEMPTED.status.equals(s))
-			return NOT_ATTEMPTED;
+		CompletionStatus t = map.get(s);
+		if (t != null)
+			return t;
 		String error = "The value '" + s +
 			"' is none of the allowed completion status values (completed, incomplete, not attempted or unknown)!";
 		if (ScormAdapter.getStrictStandardHandling())
@@ -15,6 +15,9 @@
  */
 package de.dfki.allegro.scorm.token;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /** The "credit"-setting.
  * 
  * @author Timo Scheuer
@@ -25,8 +28,17 @@ public enum CreditSetting {
 	CREDIT("credit"),
 	NO_CREDIT("no_credit");
 
+	/** Mapping between the values and the enums.*/
+	private static Map<String, CreditSetting> map;
 	/** Status of the actual token. */
 	private String setting;
+
+	static {
+		CreditSetting[] a = CreditSetting.values();
+		map = new HashMap<String, CreditSetting>(2 * a.length);
+		for (CreditSetting t : a)
+			map.put(t.setting, t);
+	}
 	
 	
 	/** Ctor.
@@ -50,10 +62,9 @@ public enum CreditSetting {
 	 * @return the corresponding enum type
 	 */
 	public static CreditSetting getEnum(String s) {
-		if (CREDIT.setting.equals(s))
-			return CREDIT;
-		if (NO_CREDIT.setting.equals(s))
-			return NO_CREDIT;
+		CreditSetting t = map.get(s);
+		if (t != null)
+			return t;
 		// if the LMS does not support setting "credit" or "no_credit" then
 		// it should return the default value: "credit"
 		throw new RuntimeException("The value '" + s +
@@ -16,6 +16,10 @@
 package de.dfki.allegro.scorm.token;
 
 
+import java.util.ArrayList;
+import java.util.List;
+
+
 /** Optional capabilities which the LMS may support.
  * 
  * @author Timo Scheuer
@@ -23,42 +27,193 @@ package de.dfki.allegro.scorm.token;
  */
 public enum LMSCapability {
 
-	COMMENT_FROM_LEARNER_COMMENT,
-	COMMENT_FROM_LEARNER_LOCATION,
-	COMMENT_FROM_LEARNER_TIMESTAMP,
-	COMMENT_FROM_LMS_COMMENT,
-	COMMENT_FROM_LMS_LOCATION,
-	COMMENT_FROM_LMS_TIMESTAMP,
-	INTERACTION_ID,
-	INTERACTION_TYPE,
-	INTERACTION_OBJECTIVES,
-	INTERACTION_TIMESTAMP,
-	INTERACTION_CORRECT_RESPONSES,
-	INTERACTION_WEIGHTING,
-	INTERACTION_LEARNER_RESPONSE,
-	INTERACTION_RESULT,
-	INTERACTION_LATENCY,
-	INTERACTION_DESCRIPTION,
-	PREFERENCE_AUDIO_LEVEL,
-	PREFERENCE_LANGUAGE,
-	PREFERENCE_DELIVERY_SPEED,
-	PREFERENCE_AUDIO_CAPTIONING,
-	OBJECTIVES_ID,
-	OBJECTIVES_SCORE,
-	OBJECTIVES_SUCCESS_STATUS,
-	OBJECTIVES_COMPLETION_STATUS,
-	OBJECTIVES_PROGRESS_MEASURE,
-	OBJECTIVES_DESCRIPTION,
-	OBJECTIVES_SCORE_SCALED,
-	OBJECTIVES_SCORE_RAW,
-	OBJECTIVES_SCORE_MIN,
-	OBJECTIVES_SCORE_MAX,
-	SCORE_SCALED,
-	SCORE_RAW,
-	SCORE_MIN,
-	SCORE_MAX,
-	ADL_DATA_ID,
-	ADL_DATA_STORE,
-	NUMBER_OF_OPTIONAL_CAPABILITIES; // this has to be the last one!
+	COMMENT_FROM_LEARNER_COMMENT("cmi.comments_from_learner._children", "comment"),
+	COMMENT_FROM_LEARNER_LOCATION("cmi.comments_from_learner._children", "location"),
+	COMMENT_FROM_LEARNER_TIMESTAMP("cmi.comments_from_learner._children", "timestamp"),
+	COMMENT_FROM_LMS_COMMENT("cmi.comments_from_lms._children", "comment"),
+	COMMENT_FROM_LMS_LOCATION("cmi.comments_from_lms._children", "location"),
+	COMMENT_FROM_LMS_TIMESTAMP("cmi.comments_from_lms._children", "timestamp"),
+	INTERACTION_ID("cmi.interactions._children", "id"),
+	INTERACTION_TYPE("cmi.interactions._children", "type"),
+	INTERACTION_OBJECTIVES("cmi.interactions._children", "objectives"),
+	INTERACTION_TIMESTAMP("cmi.interactions._children", "timestamp"),
+	INTERACTION_CORRECT_RESPONSES("cmi.interactions._children", "correct_responses"),
+	INTERACTION_WEIGHTING("cmi.interactions._children", "weighting"),
+	INTERACTION_LEARNER_RESPONSE("cmi.interactions._children", "learner_response"),
+	INTERACTION_RESULT("cmi.interactions._children", "result"),
+	INTERACTION_LATENCY("cmi.interactions._children", "latency"),
+	INTERACTION_DESCRIPTION("cmi.interactions._children", "description"),
+	PREFERENCE_AUDIO_LEVEL("cmi.learner_preference._children", "audio_level"),
+	PREFERENCE_LANGUAGE("cmi.learner_preference._children", "language"),
+	PREFERENCE_DELIVERY_SPEED("cmi.learner_preference._children", "delivery_speed"),
+	PREFERENCE_AUDIO_CAPTIONING("cmi.learner_preference._children", "audio_captioning"),
+	OBJECTIVES_ID("cmi.objectives._children", "id"),
+	OBJECTIVES_SCORE("cmi.objectives._children", "score"),
+	OBJECTIVES_SUCCESS_STATUS("cmi.objectives._children", "success_status"),
+	OBJECTIVES_COMPLETION_STATUS("cmi.objectives._children", "completion_status"),
+	OBJECTIVES_PROGRESS_MEASURE("cmi.objectives._children", "progress_measure"),
+	OBJECTIVES_DESCRIPTION("cmi.objectives._children", "description"),
+	// reference to the first element with index 0 to check availability for the
+	// minimum amount of possible entries
+	// an LMS may have implemented this (by using the index 0) as a constant lookup
+	OBJECTIVES_SCORE_SCALED("cmi.objectives.0.score._children", "scaled"),
+	OBJECTIVES_SCORE_RAW("cmi.objectives.0.score._children", "raw"),
+	OBJECTIVES_SCORE_MIN("cmi.objectives.0.score._children", "min"),
+	OBJECTIVES_SCORE_MAX("cmi.objectives.0.score._children", "max"),
+	SCORE_SCALED("cmi.score._children", "scaled"),
+	SCORE_RAW("cmi.score._children", "raw"),
+	SCORE_MIN("cmi.score._children", "min"),
+	SCORE_MAX("cmi.score._children", "max"),
+	ADL_DATA_ID("adl.data._children", "id"),
+	ADL_DATA_STORE("adl.data._children", "store"),
+	NUMBER_OF_OPTIONAL_CAPABILITIES(null, null); // this has to be the last one!
+	
+	/** The <code>_children</code> keys that list the capabilities
+	 *  (in the order of the first capability of each key).
+	 */
+	private static final String[] CHILDREN_KEYS;
+	/** Capabilities by a perfect hash of the key index and the child
+	 *  name. The size is a power of two.
+	 */
+	private static final LMSCapability[] TABLE;
+	/** Multiplier of the perfect hash function.*/
+	private static final int SEED;
+	/** Shift of the perfect hash function.*/
+	private static final int SHIFT;
+	/** Number of multipliers tried per table size.*/
+	private static final int MAX_TRIES = 4096;
+	/** Maximum number of bits of the table size.*/
+	private static final int MAX_BITS = 12;
+	
+	static {
+		List<String> keys = new ArrayList<String>();
+		for (LMSCapability c : values())
+			if (c.childrenKey != null && !keys.contains(c.childrenKey))
+				keys.add(c.childrenKey);
+		CHILDREN_KEYS = keys.toArray(new String[keys.size()]);
+		for (LMSCapability c : values())
+			c.keyIndex = keys.indexOf(c.childrenKey);
+		// search a multiplier that maps all capabilities to different
+		// slots; the table has at least twice as many slots as entries
+		int bits = 32 - Integer.numberOfLeadingZeros(2 * values().length - 1);
+		int seed = 0x9E3779B1;
+		int tries = 0;
+		LMSCapability[] table;
+		while ((table = fill(bits, seed)) == null) {
+			seed += 2;
+			if (++tries == MAX_TRIES) {
+				// capabilities with the same hash code cannot be separated
+				if (bits == MAX_BITS)
+					throw new Error("There is no perfect hash function" +
+							" of the LMS capabilities!");
+				bits++;
+				tries = 0;
+			}
+		}
+		TABLE = table;
+		SEED = seed;
+		SHIFT = 32 - bits;
+	}
+	
+	/** The <code>_children</code> key that lists this capability.*/
+	private final String childrenKey;
+	/** The name of this capability in the <code>_children</code> list.*/
+	private final String child;
+	/** Index of the <code>_children</code> key.*/
+	private int keyIndex;
+	
+	
+	/** Ctor.
+	 * 
+	 * @param k  the <code>_children</code> key that lists the capability
+	 * @param c  the name of the capability in the list
+	 */
+	private LMSCapability(String k, String c) {
+		childrenKey = k;
+		child = c;
+	}
+	
+	/** Get the <code>_children</code> key that lists this capability.
+	 * 
+	 * @return data model element
+	 */
+	public String getChildrenKey() {
+		return childrenKey;
+	}
+	
+	/** Get the name of this capability in the <code>_children</code>
+	 *  list.
+	 * 
+	 * @return child name
+	 */
+	public String getChildName() {
+		return child;
+	}
+	
+	/** Get all <code>_children</code> keys which are needed to detect
+	 *  the capabilities of the LMS.
+	 * 
+	 * @return data model elements
+	 */
+	public static String[] getChildrenKeys() {
+		return CHILDREN_KEYS.clone();
+	}
+	
+	/** Get the capability a child name of a <code>_children</code> list
+	 *  stands for.
+	 * 
+	 * @param keyIndex  index of the <code>_children</code> key in
+	 *                   <code>getChildrenKeys()</code>
+	 * @param s  child name
+	 * @param begin  first character of the child name
+	 * @param end  end of the child name (exclusive)
+	 * @return the capability or <code>null</code> if the child name
+	 *          is unknown
+	 */
+	public static LMSCapability getCapability(int keyIndex, String s, int begin, int end) {
+		int h = keyIndex;
+		for (int i=begin; i<end; i++)
+			h = 31 * h + s.charAt(i);
+		LMSCapability c = TABLE[(h * SEED) >>> SHIFT];
+		if (c == null || c.keyIndex != keyIndex || c.child.length() != end - begin ||
+				!s.regionMatches(begin, c.child, 0, end - begin))
+			return null;
+		return c;
+	}
+	
+	/** Fill the table of the perfect hash function.
+	 * 
+	 * @param bits  number of bits of the table size
+	 * @param seed  multiplier
+	 * @return the table or <code>null</code> if two capabilities are
+	 *          mapped to the same slot
+	 */
+	private static LMSCapability[] fill(int bits, int seed) {
+		LMSCapability[] table = new LMSCapability[1 << bits];
+		for (LMSCapability c : values()) {
+			if (c.childrenKey == null)
+				continue;
+			int slot = hash(c.keyIndex, c.child, seed, 32 - bits);
+			if (table[slot] != null)
+				return null;
+			table[slot] = c;
+		}
+		return table;
+	}
+	
+	/** Hash function used to fill the table.
+	 * 
+	 * @param keyIndex  index of the <code>_children</code> key
+	 * @param child  child name
+	 * @param seed  multiplier
+	 * @param shift  shift
+	 * @return table slot
+	 */
+	private static int hash(int keyIndex, String child, int seed, int shift) {
+		int h = keyIndex;
+		for (int i=0; i<child.length(); i++)
+			h = 31 * h + child.charAt(i);
+		return (h * seed) >>> shift;
+	}
 	
 }
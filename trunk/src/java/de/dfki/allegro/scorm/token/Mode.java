@@ -15,6 +15,9 @@
  */
 package de.dfki.allegro.scorm.token;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /** The mode indicates the SCO's behavior after launch.
  * 
  * @author Timo Scheuer
@@ -25,9 +28,18 @@ public enum Mode {
 	NORMAL("normal"),
 	REVIEW("review");
 	
+	/** Mapping between the values and the enums.*/
+	private static Map<String, Mode> map;
 	/** State of the actual token. */
 	private String mode;
 
+	static {
+		Mode[] a = Mode.values();
+		map = new HashMap<String, Mode>(2 * a.length);
+		for (Mode t : a)
+			map.put(t.mode, t);
+	}
+
 
 	/** Get <code>String</code> representation.
 	 * 
@@ -51,12 +63,9 @@ public enum Mode {
 	 * @return the corresponding enum type
 	 */
 	public static Mode getEnum(String s) {
-		if (NORMAL.mode.equals(s))
-			return NORMAL;
-		if (BROWSE.mode.equals(s))
-			return BROWSE;
-		if (REVIEW.mode.equals(s))
-			return REVIEW;
+		Mode t = map.get(s);
+		if (t != null)
+			return t;
 		String error = "The value '" + s +
 			"' is none of the allowed mode values ('browse', 'normal', 'review')!";
 		throw new RuntimeException(error);
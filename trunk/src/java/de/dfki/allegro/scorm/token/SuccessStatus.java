@@ -15,6 +15,9 @@
  */
 package de.dfki.allegro.scorm.token;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import de.dfki.allegro.scorm.ScormAdapter;
 
 /** Indicates whether a learner has mastered an objective.
@@ -28,9 +31,18 @@ public enum SuccessStatus {
 	FAILED("failed"),
 	UNKNOWN("unknown");
 	
+	/** Mapping between the values and the enums.*/
+	private static Map<String, SuccessStatus> map;
 	/** Objective status. */
 	private String status;
 
+	static {
+		SuccessStatus[] a = SuccessStatus.values();
+		map = new HashMap<String, SuccessStatus>(2 * a.length);
+		for (SuccessStatus t : a)
+			map.put(t.status, t);
+	}
+
 
 	/** Get <code>String</code> representation.
 	 * 
@@ -54,12 +66,9 @@ public enum SuccessStatus {
 	 * @return the corresponding enum type
 	 */
 	public static SuccessStatus getEnum(String s) {
-		if (PASSED.status.equals(s))
-			return PASSED;
-		if (FAILED.status.equals(s))
-			return FAILED;
-		if (UNKNOWN.status.equals(s))
-			return UNKNOWN;
+		SuccessStatus t = map.get(s);
+		if (t != null)
+			return t;
 		String error = "The value '" + s +
 			"' is none of the allowed objective success status values (passed, failed or unknown)!";
 		if (ScormAdapter.getStrictStandardHandling())
@@ -15,6 +15,9 @@
  */
 package de.dfki.allegro.scorm.token;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import de.dfki.allegro.scorm.ScormAdapter;
 
 
@@ -31,9 +34,18 @@ public enum ThreeStatesChangeValue {
 	NO_CHANGE("0"),
 	ON("1");
 	
+	/** Mapping between the values and the enums.*/
+	private static Map<String, ThreeStatesChangeValue> map;
 	/** State of the actual token. */
 	private String state;
 
+	static {
+		ThreeStatesChangeValue[] a = ThreeStatesChangeValue.values();
+		map = new HashMap<String, ThreeStatesChangeValue>(2 * a.length);
+		for (ThreeStatesChangeValue t : a)
+			map.put(t.state, t);
+	}
+
 
 	/** Get <code>String</code> representation.
 	 * 
@@ -57,12 +69,9 @@ public enum ThreeStatesChangeValue {
 	 * @return the corresponding enum type
 	 */
 	public static ThreeStatesChangeValue getEnum(String s) {
-		if (ON.state.equals(s))
-			return ON;
-		if (OFF.state.equals(s))
-			return OFF;
-		if (NO_CHANGE.state.equals(s))
-			return NO_CHANGE;
+		ThreeStatesChangeValue t = map.get(s);
+		if (t != null)
+			return t;
 		String error = "The value '" + s +
 			"' is none of the allowed state values (-1, 0 or 1)!";
 		if (ScormAdapter.getStrictStandardHandling())
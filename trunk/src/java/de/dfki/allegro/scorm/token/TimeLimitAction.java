@@ -15,6 +15,9 @@
  */
 package de.dfki.allegro.scorm.token;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import de.dfki.allegro.scorm.ScormAdapter;
 
 /** Defines to tokens that indicate what a SCO should do when
@@ -30,9 +33,18 @@ public enum TimeLimitAction {
 	EXIT_NO_MESSAGE("exit_no_message"),
 	CONTINUE_NO_MESSAGE("continue_no_message");
 	
+	/** Mapping between the values and the enums.*/
+	private static Map<String, TimeLimitAction> map;
 	/** The setting. */
 	private String setting;
 
+	static {
+		TimeLimitAction[] a = TimeLimitAction.values();
+		map = new HashMap<String, TimeLimitAction>(2 * a.length);
+		for (TimeLimitAction t : a)
+			map.put(t.setting, t);
+	}
+
 
 	/** Get <code>String</code> representation.
 	 * 
@@ -56,14 +68,9 @@ public enum TimeLimitAction {
 	 * @return the corresponding enum type
 	 */
 	public static TimeLimitAction getEnum(String s) {
-		if (EXIT_MESSAGE.setting.equals(s))
-			return EXIT_MESSAGE;
-		if (CONTINUE_MESSAGE.setting.equals(s))
-			return CONTINUE_MESSAGE;
-		if (EXIT_NO_MESSAGE.setting.equals(s))
-			return EXIT_NO_MESSAGE;
-		if (CONTINUE_NO_MESSAGE.setting.equals(s))
-			return CONTINUE_NO_MESSAGE;
+		TimeLimitAction t = map.get(s);
+		if (t != null)
+			return t;
 		String error = "The value '" + s +
 			"' is none of the allowed time limit action values " +
 			"(exit_message, continue_message, exit_no_message or continue_no_message)!";
@@ -0,0 +1,43 @@
+/** Copyright 2010 Timo Scheuer
+ * 
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.dfki.allegro.scorm.token;
+
+
+/** Conversion between the tokens of a SCORM vocabulary and their
+ *  <code>String</code> representation used by the LMS.
+ * 
+ * @author Timo Scheuer
+ *
+ * @param <E>  token type
+ * @see de.dfki.allegro.scorm.token.TokenCodecs
+ */
+public interface TokenCodec<E> {
+
+	/** Get the token of a <code>String</code> read from the LMS.
+	 * 
+	 * @param s  the <code>String</code> representation
+	 * @return the token
+	 */
+	public E decode(String s);
+
+	/** Get the <code>String</code> representation of a token.
+	 * 
+	 * @param t  the token
+	 * @return the <code>String</code> written to the LMS
+	 */
+	public String encode(E t);
+
+}
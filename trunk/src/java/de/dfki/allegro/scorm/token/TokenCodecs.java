@@ -0,0 +1,116 @@
+/** Copyright 2010 Timo Scheuer
+ * 
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.dfki.allegro.scorm.token;
+
+
+/** The codecs of all SCORM vocabularies. Decoding uses the
+ *  <code>getEnum</code> method of the token type directly, which looks
+ *  the token up in a table, hence no reflection is needed to read a
+ *  token.
+ * 
+ * @author Timo Scheuer
+ *
+ */
+public final class TokenCodecs {
+
+	/** Codec of <code>SuccessStatus</code>.*/
+	public static final TokenCodec<SuccessStatus> SUCCESS_STATUS = new TokenCodec<SuccessStatus>() {
+		public SuccessStatus decode(String s) {
+			return SuccessStatus.getEnum(s);
+		}
+		public String encode(SuccessStatus t) {
+			return t.toString();
+		}
+	};
+
+	/** Codec of <code>CompletionStatus</code>.*/
+	public static final TokenCodec<CompletionStatus> COMPLETION_STATUS = new TokenCodec<CompletionStatus>() {
+		public CompletionStatus decode(String s) {
+			return CompletionStatus.getEnum(s);
+		}
+		public String encode(CompletionStatus t) {
+			return t.toString();
+		}
+	};
+
+	/** Codec of <code>CreditSetting</code>.*/
+	public static final TokenCodec<CreditSetting> CREDIT_SETTING = new TokenCodec<CreditSetting>() {
+		public CreditSetting decode(String s) {
+			return CreditSetting.getEnum(s);
+		}
+		public String encode(CreditSetting t) {
+			return t.toString();
+		}
+	};
+
+	/** Codec of <code>EntryStatus</code>.*/
+	public static final TokenCodec<EntryStatus> ENTRY_STATUS = new TokenCodec<EntryStatus>() {
+		public EntryStatus decode(String s) {
+			return EntryStatus.getEnum(s);
+		}
+		public String encode(EntryStatus t) {
+			return t.toString();
+		}
+	};
+
+	/** Codec of <code>InteractionType</code>.*/
+	public static final TokenCodec<InteractionType> INTERACTION_TYPE = new TokenCodec<InteractionType>() {
+		public InteractionType decode(String s) {
+			return InteractionType.getEnum(s);
+		}
+		public String encode(InteractionType t) {
+			return t.toString();
+		}
+	};
+
+	/** Codec of <code>Mode</code>.*/
+	public static final TokenCodec<Mode> MODE = new TokenCodec<Mode>() {
+		public Mode decode(String s) {
+			return Mode.getEnum(s);
+		}
+		public String encode(Mode t) {
+			return t.toString();
+		}
+	};
+
+	/** Codec of <code>ThreeStatesChangeValue</code>.*/
+	public static final TokenCodec<ThreeStatesChangeValue> THREE_STATES_CHANGE_VALUE = new TokenCodec<ThreeStatesChangeValue>() {
+		public ThreeStatesChangeValue decode(String s) {
+			return ThreeStatesChangeValue.getEnum(s);
+		}
+		public String encode(ThreeStatesChangeValue t) {
+			return t.toString();
+		}
+	};
+
+	/** Codec of <code>TimeLimitAction</code>.*/
+	public static final TokenCodec<TimeLimitAction> TIME_LIMIT_ACTION = new TokenCodec<TimeLimitAction>() {
+		public TimeLimitAction decode(String s) {
+			return TimeLimitAction.getEnum(s);
+		}
+		public String encode(TimeLimitAction t) {
+			return t.toString();
+		}
+	};
+
+
+	/** Ctor.
+	 * 
+	 */
+	private TokenCodecs() {
+	}
+
+}
@@ -15,6 +15,7 @@
  */
 package de.dfki.allegro.scorm.util;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.Locale;
 
@@ -27,7 +28,7 @@ import java.util.Locale;
  * @author Timo Scheuer
  *
  */
-public class LocalizedString implements Serializable {
+public class LocalizedString implements Serializable, ScormEncodable {
 
 	/** Serial version id.*/
 	private static final long serialVersionUID = 1L;
@@ -96,8 +97,20 @@ public class LocalizedString implements Serializable {
 	 * @return <code>String</code> representation
 	 */
 	public String toString() {
-		return ((!(lang==null || "en".equals(lang))) ?
-			"{lang=" + lang + "}" : "") + string;
+		return ScormEncoding.toString(this);
+	}
+
+	/** Append the localized character string including the
+	 *  language setting to a character sequence.
+	 * 
+	 * @param a  the character sequence to append to
+	 * @return the character sequence
+	 * @throws IOException  thrown by the character sequence
+	 */
+	public Appendable encodeTo(Appendable a) throws IOException {
+		if (!(lang==null || "en".equals(lang)))
+			a.append("{lang=").append(lang.toString()).append('}');
+		return a.append(string);
 	}
 
 	/** Get the pure character string without control data
@@ -15,6 +15,8 @@
  */
 package de.dfki.allegro.scorm.util;
 
+import java.io.IOException;
+
 /** A numeric range is defined by a minimum and a maximum value.
  *  The class has no default constructor to enforce valid
  *  initialization.
@@ -26,11 +28,11 @@ package de.dfki.allegro.scorm.util;
  * @author Timo Scheuer
  *
  */
-public class NumericRange {
+public class NumericRange implements ScormEncodable {
 
-	/** Minimum number. Is also used for synchronization.*/
+	/** Minimum number or <code>null</code>.*/
 	private Float minimum;
-	/** Maximum number.*/
+	/** Maximum number or <code>null</code>.*/
 	private Float maximum;
 	
 
@@ -54,10 +56,10 @@ public class NumericRange {
 	 * @param s  encoded mumeric range
 	 */
 	public NumericRange(String s) {
-		String[] a = s.split("\\[:\\]");
+		String[] a = Tokenizer.split(s, Tokenizer.RANGE, -1);
 		if (!a[0].isEmpty())
 			setMinimum(Float.valueOf(a[0]));
-		if (!a[1].isEmpty())
+		if (a.length > 1 && !a[1].isEmpty())
 			setMaximum(Float.valueOf(a[1]));
 	}
 
@@ -66,51 +68,41 @@ public class NumericRange {
 	 * @param min  minimum value
 	 * @param max  maximum value
 	 */
-	public void setRange(Float min, Float max) {
-		synchronized(minimum) {
-			minimum = min;
-			maximum = max;
-		}
+	public synchronized void setRange(Float min, Float max) {
+		minimum = min;
+		maximum = max;
 	}
 
 	/** Get the minimum value.
 	 * 
 	 * @return minimum value
 	 */
-	public Float getMinimum() {
-		synchronized(minimum) {
-			return minimum;
-		}
+	public synchronized Float getMinimum() {
+		return minimum;
 	}
 	
 	/** Set the minimum value.
 	 * 
 	 * @param m  minimum value
 	 */
-	public void setMinimum(Float m) {
-		synchronized(minimum) {
-			minimum = m;
-		}
+	public synchronized void setMinimum(Float m) {
+		minimum = m;
 	}
 	
 	/** Get the maximum value.
 	 * 
 	 * @return maximum value
 	 */
-	public Float getMaxnimum() {
-		synchronized(minimum) {
-			return maximum;
-		}
+	public synchronized Float getMaxnimum() {
+		return maximum;
 	}
 	
 	/** Set the maximum value.
 	 * 
 	 * @param m  maximum value
 	 */
-	public void setMaximum(Float m) {
-		synchronized(maximum) {
-			maximum = m;
-		}
+	public synchronized void setMaximum(Float m) {
+		maximum = m;
 	}
 	
 	/** Get <code>String</code> representation.
@@ -118,6 +110,21 @@ public class NumericRange {
 	 * @return <code>String</code> representation.
 	 */
 	public String toString() {
-		return minimum.toString() + "[:]" + maximum.toString();
+		return ScormEncoding.toString(this);
+	}
+
+	/** Append the SCORM encoding to a character sequence.
+	 * 
+	 * @param a  the character sequence to append to
+	 * @return the character sequence
+	 * @throws IOException  thrown by the character sequence
+	 */
+	public synchronized Appendable encodeTo(Appendable a) throws IOException {
+		if (minimum != null)
+			a.append(minimum.toString());
+		a.append(Tokenizer.RANGE);
+		if (maximum != null)
+			a.append(maximum.toString());
+		return a;
 	}
 }
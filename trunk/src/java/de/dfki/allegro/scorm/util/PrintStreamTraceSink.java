@@ -0,0 +1,71 @@
+/** Copyright 2010 Timo Scheuer
+ * 
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.dfki.allegro.scorm.util;
+
+
+import java.io.PrintStream;
+
+
+/** Trace sink that prints every record as one line.
+ * 
+ * @author Timo Scheuer
+ *
+ */
+public class PrintStreamTraceSink implements TraceSink {
+
+	/** The target stream.*/
+	private final PrintStream out;
+
+
+	/** Ctor.
+	 * 
+	 * @param s  the target stream
+	 */
+	public PrintStreamTraceSink(PrintStream s) {
+		out = s;
+	}
+
+	/** Print a trace record.
+	 * 
+	 * @param l  trace level
+	 * @param event  what happened, e.g. the SCORM function
+	 * @param key  data model element or <code>null</code>
+	 * @param value  value or result or <code>null</code>
+	 */
+	public void trace(Trace.Level l, String event, String key, String value) {
+		out.println(format(l, event, key, value));
+	}
+
+	/** Format a trace record.
+	 * 
+	 * @param l  trace level
+	 * @param event  what happened
+	 * @param key  data model element or <code>null</code>
+	 * @param value  value or result or <code>null</code>
+	 * @return one line representation
+	 */
+	static String format(Trace.Level l, String event, String key, String value) {
+		StringBuilder b = new StringBuilder(32 + event.length() +
+				(key == null ? 0 : key.length()) + (value == null ? 0 : value.length()));
+		b.append('[').append(l).append("] ").append(event);
+		if (key != null)
+			b.append('(').append(key).append(')');
+		if (value != null)
+			b.append(": ").append(value);
+		return b.toString();
+	}
+
+}
@@ -0,0 +1,109 @@
+/** Copyright 2010 Timo Scheuer
+ * 
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.dfki.allegro.scorm.util;
+
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/** Trace sink that keeps the last records in memory. Older records
+ *  are overwritten, so the sink can stay active without growing.
+ *  The records are only formatted when they are requested.
+ * 
+ * @author Timo Scheuer
+ *
+ */
+public class RingBufferTraceSink implements TraceSink {
+
+	/** Levels of the records.*/
+	private final Trace.Level[] levels;
+	/** Time stamps of the records (in milliseconds).*/
+	private final long[] times;
+	/** Events of the records.*/
+	private final String[] events;
+	/** Keys of the records.*/
+	private final String[] keys;
+	/** Values of the records.*/
+	private final String[] values;
+	/** Index of the next record to write.*/
+	private int next = 0;
+	/** Number of records in the buffer.*/
+	private int size = 0;
+
+
+	/** Ctor.
+	 * 
+	 * @param capacity  maximum number of records to keep
+	 */
+	public RingBufferTraceSink(int capacity) {
+		if (capacity < 1)
+			throw new IllegalArgumentException("Capacity must be positive!");
+		levels = new Trace.Level[capacity];
+		times = new long[capacity];
+		events = new String[capacity];
+		keys = new String[capacity];
+		values = new String[capacity];
+	}
+
+	/** Store a trace record.
+	 * 
+	 * @param l  trace level
+	 * @param event  what happened, e.g. the SCORM function
+	 * @param key  data model element or <code>null</code>
+	 * @param value  value or result or <code>null</code>
+	 */
+	public synchronized void trace(Trace.Level l, String event, String key, String value) {
+		levels[next] = l;
+		times[next] = System.currentTimeMillis();
+		events[next] = event;
+		keys[next] = key;
+		values[next] = value;
+		next = (next + 1) % levels.length;
+		if (size < levels.length)
+			size++;
+	}
+
+	/** Get the stored records, the oldest record first.
+	 * 
+	 * @return one line per record
+	 */
+	public synchronized List<String> getRecords() {
+		List<String> l = new ArrayList<String>(size);
+		int first = (next - size + levels.length) % levels.length;
+		for (int i=0; i<size; i++) {
+			int j = (first + i) % levels.length;
+			l.add(times[j] + " " + PrintStreamTraceSink.format(
+					levels[j], events[j], keys[j], values[j]));
+		}
+		return l;
+	}
+
+	/** Remove all records.
+	 * 
+	 */
+	public synchronized void clear() {
+		for (int i=0; i<levels.length; i++) {
+			levels[i] = null;
+			events[i] = null;
+			keys[i] = null;
+			values[i] = null;
+		}
+		next = 0;
+		size = 0;
+	}
+
+}
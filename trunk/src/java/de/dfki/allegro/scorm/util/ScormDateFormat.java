@@ -18,12 +18,13 @@ package de.dfki.allegro.scorm.util;
 
 import java.text.DateFormat;
 import java.text.FieldPosition;
+import java.text.ParseException;
 import java.text.ParsePosition;
-import java.util.Calendar;
 import java.util.Date;
-import java.util.GregorianCalendar;
 
-/** <code>String</code>/SCORM date and time converter.
+/** <code>String</code>/SCORM date and time converter. This is a
+ *  <code>DateFormat</code> view of <code>ScormTimestamp</code>, which
+ *  should be used directly if no <code>DateFormat</code> is required.
  * 
  * @author Timo Scheuer
  *
@@ -66,12 +67,7 @@ public class ScormDateFormat extends DateFormat {
 	 */
 	public StringBuffer format(Date date, StringBuffer toAppendTo,
 			FieldPosition fieldPosition) {
-		toAppendTo.append(String.format("%1$tY-%1$tm-%1$tdT%1$tH:%1$tM:%1$tS.%1$tL%1$tz", date));
-		// only two digits are allow for millisecond
-		toAppendTo.deleteCharAt(22);
-		// timezone uses a separator between hours and minutes
-		toAppendTo.insert(25, ':');
-		return toAppendTo;
+		return ScormEncoding.encode(ScormTimestamp.encodable(date.getTime()), toAppendTo);
 	}
 
 	/** Parse a date/time string according to the given parse
@@ -92,59 +88,14 @@ public class ScormDateFormat extends DateFormat {
 	 * @return A Date, or null if the input could not be parsed
 	 */
 	public Date parse(String source, ParsePosition pos) {
-		int start = pos.getIndex();
-		int end;
-		GregorianCalendar c = new GregorianCalendar();
-		int msw = 1;
-		// accepts also some invalid formats with missing characters
-		switch(source.length()) {
-		case 28:
-			end = 28;
-			msw = 2;
-		case 27:
-			end = 27;
-			int ms = Integer.parseInt(source.substring(start + 24 + msw, 26 + msw)) * 60000 +
-				Integer.parseInt(source.substring(start + 21 + msw, 23 + msw)) * 3600000;
-			c.set(Calendar.ZONE_OFFSET, source.charAt(start + 22) == '-' ? -ms : ms);
-		case 22:
-			end = 22;
-			// UTC (z) has an offset of 0 ==> nothing to do
-		case 21:
-			end = 21;
-			msw = 2;
-			c.set(Calendar.MILLISECOND, Integer.parseInt(source.substring(start + 20, 20 + msw)));
-		case 20:
-		case 19:
-			end = 19;
-			c.set(Calendar.SECOND, Integer.parseInt(source.substring(start + 17, 19)));
-		case 18:
-		case 17:
-		case 16:
-			end = 16;
-			c.set(Calendar.MINUTE, Integer.parseInt(source.substring(start + 14, 16)));
-		case 15:
-		case 14:
-		case 13:
-			end = 13;
-			c.set(Calendar.HOUR_OF_DAY, Integer.parseInt(source.substring(start + 11, 13)));
-		case 12:
-		case 11:
-		case 10:
-			end = 10;
-			c.set(Calendar.DAY_OF_MONTH, Integer.parseInt(source.substring(start + 8, 10)));
-		case 9:
-		case 8:
-		case 7:
-			end = 7;
-			c.set(Calendar.MONTH, Integer.parseInt(source.substring(start + 5, 7)) - 1);
-		case 6:
-		case 5:
-		default:
-			end = 5;
-			c.set(Calendar.YEAR, Integer.parseInt(source.substring(start + 0, 4)));
+		try {
+			long t = ScormTimestamp.parse(source, pos.getIndex(), source.length());
+			pos.setIndex(source.length());
+			return new Date(t);
+		} catch (ParseException e) {
+			pos.setErrorIndex(e.getErrorOffset());
+			return null;
 		}
-		pos.setIndex(end);
-		return c.getTime();
 	}
 
 }
@@ -0,0 +1,40 @@
+/** Copyright 2010 Timo Scheuer
+ * 
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.dfki.allegro.scorm.util;
+
+
+import java.io.IOException;
+
+
+/** A value which can write its SCORM 2004 encoding into a character
+ *  sequence, e.g. a <code>StringBuilder</code> which is reused for
+ *  many values. The encoding is the same as the one returned by
+ *  <code>toString()</code>.
+ *
+ * @author Timo Scheuer
+ *
+ */
+public interface ScormEncodable {
+
+	/** Append the SCORM encoding of this value to a character sequence.
+	 * 
+	 * @param a  the character sequence to append to
+	 * @return the character sequence
+	 * @throws IOException  thrown by the character sequence
+	 */
+	public Appendable encodeTo(Appendable a) throws IOException;
+
+}
@@ -0,0 +1,66 @@
+/** Copyright 2010 Timo Scheuer
+ * 
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.dfki.allegro.scorm.util;
+
+
+import java.io.IOException;
+
+
+/** Helpers for <code>ScormEncodable</code> values. The encodings are
+ *  written into character sequences in memory, so the
+ *  <code>IOException</code> of <code>Appendable</code> cannot occur.
+ *
+ * @author Timo Scheuer
+ *
+ */
+public final class ScormEncoding {
+
+	/** No instances.
+	 * 
+	 */
+	private ScormEncoding() {
+	}
+
+	/** Get the SCORM encoding of a value as <code>String</code>.
+	 *  Implementations of <code>toString()</code> delegate to this.
+	 * 
+	 * @param e  the value
+	 * @return the encoding
+	 */
+	public static String toString(ScormEncodable e) {
+		return encode(e, new StringBuilder()).toString();
+	}
+
+	/** Append the SCORM encoding of a value to a character sequence in
+	 *  memory, e.g. a <code>StringBuilder</code> or a
+	 *  <code>StringBuffer</code>.
+	 * 
+	 * @param <A>  type of the character sequence
+	 * @param e  the value
+	 * @param a  the character sequence to append to
+	 * @return the character sequence
+	 */
+	public static <A extends Appendable> A encode(ScormEncodable e, A a) {
+		try {
+			e.encodeTo(a);
+		} catch (IOException x) {
+			// a character sequence in memory does not throw
+			throw new RuntimeException(x);
+		}
+		return a;
+	}
+
+}
@@ -0,0 +1,337 @@
+/** Copyright 2010 Timo Scheuer
+ * 
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.dfki.allegro.scorm.util;
+
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.TimeZone;
+
+
+/** Conversion between milliseconds since the epoch and SCORM
+ *  timestamps, e.g. <code>2010-10-25T18:03:33.25+02:00</code>. The
+ *  conversion does not use a <code>Calendar</code>, the digits are
+ *  written and read by hand. All methods are thread-safe.
+ *
+ *  Timestamps are written in the default time zone with two digits
+ *  of fraction of a second. When reading, all parts after the year
+ *  are optional. A timestamp without time zone designator is local
+ *  time, <code>Z</code> is UTC.
+ *
+ * @author Timo Scheuer
+ *
+ */
+public final class ScormTimestamp {
+
+	/** Milliseconds per day.*/
+	private static final long DAY = 86400000L;
+
+	/** The last time zone offset which has been written.*/
+	private static volatile Offset lastOffset;
+
+
+	/** A time zone offset and its representation.
+	 * 
+	 * @author Timo Scheuer
+	 * 
+	 */
+	private static final class Offset {
+		/** Offset in milliseconds.*/
+		final int millis;
+		/** Representation, e.g. <code>+02:00</code>.*/
+		final String text;
+
+		/** Ctor.
+		 * 
+		 * @param m  offset in milliseconds
+		 */
+		Offset(int m) {
+			millis = m;
+			int minutes = Math.abs(m) / 60000;
+			char[] c = {m < 0 ? '-' : '+', 0, 0, ':', 0, 0};
+			digits(c, 1, minutes / 60);
+			digits(c, 4, minutes % 60);
+			text = new String(c);
+		}
+	}
+
+
+	/** No instances.
+	 * 
+	 */
+	private ScormTimestamp() {
+	}
+
+	/** Get the SCORM timestamp of a point in time.
+	 * 
+	 * @param millis  milliseconds since the epoch
+	 * @return the timestamp
+	 */
+	public static String format(long millis) {
+		return ScormEncoding.toString(encodable(millis));
+	}
+
+	/** Get the SCORM timestamp of a point in time as encodable value.
+	 * 
+	 * @param millis  milliseconds since the epoch
+	 * @return the timestamp
+	 */
+	static ScormEncodable encodable(final long millis) {
+		return new ScormEncodable() {
+			public Appendable encodeTo(Appendable a) throws IOException {
+				return appendTo(a, millis);
+			}
+		};
+	}
+
+	/** Append the SCORM timestamp of a point in time to a character
+	 *  sequence.
+	 * 
+	 * @param a  the character sequence to append to
+	 * @param millis  milliseconds since the epoch
+	 * @return the character sequence
+	 * @throws IOException  thrown by the character sequence
+	 */
+	public static Appendable appendTo(Appendable a, long millis) throws IOException {
+		Offset o = offset(TimeZone.getDefault().getOffset(millis));
+		long local = millis + o.millis;
+		long days = floorDiv(local, DAY);
+		int time = (int)(local - days * DAY);
+		// civil date of the day number, see "chrono-Compatible Low-Level
+		// Date Algorithms" by Howard Hinnant
+		long z = days + 719468;
+		long era = floorDiv(z, 146097);
+		int doe = (int)(z - era * 146097);
+		int yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+		int doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+		int mp = (5 * doy + 2) / 153;
+		int day = doy - (153 * mp + 2) / 5 + 1;
+		int month = mp < 10 ? mp + 3 : mp - 9;
+		long year = yoe + era * 400 + (month <= 2 ? 1 : 0);
+
+		digits(a, (int)(year / 100));
+		digits(a, (int)(year % 100)).append('-');
+		digits(a, month).append('-');
+		digits(a, day).append('T');
+		digits(a, time / 3600000).append(':');
+		digits(a, time / 60000 % 60).append(':');
+		digits(a, time / 1000 % 60).append('.');
+		digits(a, time % 1000 / 10);
+		return a.append(o.text);
+	}
+
+	/** Parse a SCORM timestamp.
+	 * 
+	 * @param s  the timestamp
+	 * @return milliseconds since the epoch
+	 * @throws ParseException  The format is not correct according to the
+	 *                          SCORM specification
+	 */
+	public static long parse(CharSequence s) throws ParseException {
+		return parse(s, 0, s.length());
+	}
+
+	/** Parse a SCORM timestamp which is a part of a character sequence.
+	 * 
+	 * @param s  the characters
+	 * @param from  index of the first character
+	 * @param to  index after the last character
+	 * @return milliseconds since the epoch
+	 * @throws ParseException  The format is not correct according to the
+	 *                          SCORM specification
+	 */
+	public static long parse(CharSequence s, int from, int to) throws ParseException {
+		int i = from;
+		int year = number(s, from, i, to, 4, 0, 9999);
+		int month = 1;
+		int day = 1;
+		int hour = 0;
+		int minute = 0;
+		int second = 0;
+		int millis = 0;
+		i += 4;
+		if (i < to && s.charAt(i) == '-') {
+			month = number(s, from, ++i, to, 2, 1, 12);
+			i += 2;
+			if (i < to && s.charAt(i) == '-') {
+				day = number(s, from, ++i, to, 2, 1, daysOfMonth(year, month));
+				i += 2;
+				if (i < to && s.charAt(i) == 'T') {
+					hour = number(s, from, ++i, to, 2, 0, 23);
+					i += 2;
+					if (i < to && s.charAt(i) == ':') {
+						minute = number(s, from, ++i, to, 2, 0, 59);
+						i += 2;
+						if (i < to && s.charAt(i) == ':') {
+							second = number(s, from, ++i, to, 2, 0, 59);
+							i += 2;
+							if (i < to && s.charAt(i) == '.') {
+								int start = ++i;
+								int scale = 100;
+								for (char c; i < to && (c = s.charAt(i)) >= '0' && c <= '9'; i++) {
+									millis += scale * (c - '0');
+									scale /= 10;
+								}
+								if (i == start)
+									throw error(s, from, to, i);
+							}
+						}
+					}
+				}
+			}
+		}
+		long local = (days(year, month, day) * 24 + hour) * 3600000L +
+			minute * 60000L + second * 1000L + millis;
+		if (i == to) {
+			TimeZone z = TimeZone.getDefault();
+			return local - z.getOffset(local - z.getOffset(local));
+		}
+		char c = s.charAt(i);
+		if (c == 'Z' && i + 1 == to)
+			return local;
+		if (c != '+' && c != '-')
+			throw error(s, from, to, i);
+		int offset = number(s, from, ++i, to, 2, 0, 23) * 60;
+		i += 2;
+		if (i < to && s.charAt(i) == ':') {
+			offset += number(s, from, ++i, to, 2, 0, 59);
+			i += 2;
+		}
+		if (i != to)
+			throw error(s, from, to, i);
+		return local - (c == '-' ? -offset : offset) * 60000L;
+	}
+
+	/** Get the representation of a time zone offset. The last offset is
+	 *  kept, so its representation is created only once.
+	 * 
+	 * @param millis  offset in milliseconds
+	 * @return the offset
+	 */
+	private static Offset offset(int millis) {
+		Offset o = lastOffset;
+		if (o == null || o.millis != millis) {
+			o = new Offset(millis);
+			lastOffset = o;
+		}
+		return o;
+	}
+
+	/** Write a number with two digits.
+	 * 
+	 * @param c  the characters
+	 * @param i  index of the first digit
+	 * @param n  the number from 0 to 99
+	 */
+	private static void digits(char[] c, int i, int n) {
+		c[i] = (char)('0' + n / 10);
+		c[i + 1] = (char)('0' + n % 10);
+	}
+
+	/** Append a number with two digits.
+	 * 
+	 * @param a  the character sequence to append to
+	 * @param n  the number from 0 to 99
+	 * @return the character sequence
+	 * @throws IOException  thrown by the character sequence
+	 */
+	private static Appendable digits(Appendable a, int n) throws IOException {
+		return a.append((char)('0' + n / 10)).append((char)('0' + n % 10));
+	}
+
+	/** Read a number with a fixed number of digits.
+	 * 
+	 * @param s  the characters
+	 * @param from  index of the first character of the timestamp
+	 * @param i  index of the first digit
+	 * @param to  index after the last character
+	 * @param digits  number of digits
+	 * @param min  minimum value
+	 * @param max  maximum value
+	 * @return the number
+	 * @throws ParseException  the digits are missing or the value is
+	 *                          out of range
+	 */
+	private static int number(CharSequence s, int from, int i, int to, int digits, int min, int max)
+	throws ParseException {
+		if (i + digits > to)
+			throw error(s, from, to, i);
+		int n = 0;
+		for (int j=i; j<i+digits; j++) {
+			char c = s.charAt(j);
+			if (c < '0' || c > '9')
+				throw error(s, from, to, j);
+			n = 10 * n + c - '0';
+		}
+		if (n < min || n > max)
+			throw error(s, from, to, i);
+		return n;
+	}
+
+	/** Get the number of days since the epoch of a date.
+	 * 
+	 * @param year  the year
+	 * @param month  the month from 1 to 12
+	 * @param day  the day of the month
+	 * @return the day number
+	 */
+	private static long days(int year, int month, int day) {
+		// see "chrono-Compatible Low-Level Date Algorithms" by Howard Hinnant
+		int y = month <= 2 ? year - 1 : year;
+		int era = (y >= 0 ? y : y - 399) / 400;
+		int yoe = y - era * 400;
+		int doy = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+		int doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+		return era * 146097L + doe - 719468;
+	}
+
+	/** Get the number of days of a month.
+	 * 
+	 * @param year  the year
+	 * @param month  the month from 1 to 12
+	 * @return the number of days
+	 */
+	private static int daysOfMonth(int year, int month) {
+		if (month == 2)
+			return year % 4 == 0 && (year % 100 != 0 || year % 400 == 0) ? 29 : 28;
+		return month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31;
+	}
+
+	/** Divide rounding towards negative infinity.
+	 * 
+	 * @param a  the dividend
+	 * @param b  the positive divisor
+	 * @return the quotient
+	 */
+	private static long floorDiv(long a, long b) {
+		long q = a / b;
+		return a % b < 0 ? q - 1 : q;
+	}
+
+	/** Create the exception reporting an invalid timestamp.
+	 * 
+	 * @param s  the characters
+	 * @param from  index of the first character
+	 * @param to  index after the last character
+	 * @param i  index of the error
+	 * @return the exception
+	 */
+	private static ParseException error(CharSequence s, int from, int to, int i) {
+		return new ParseException("The value '" + s.subSequence(from, to) +
+				"' is no SCORM timestamp!", i);
+	}
+
+}
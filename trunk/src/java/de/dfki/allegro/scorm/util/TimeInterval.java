@@ -15,9 +15,8 @@
  */
 package de.dfki.allegro.scorm.util;
 
+import java.io.IOException;
 import java.text.ParseException;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /** This class represents a time interval. Every value of the
  *  time interval, e.g. the minutes, is positive.
@@ -31,7 +30,7 @@ import java.util.regex.Pattern;
  * @author Timo Scheuer
  *
  */
-public final class TimeInterval {
+public final class TimeInterval implements ScormEncodable {
 
 	/** Years. */
 	private int year;
@@ -186,85 +185,192 @@ public final class TimeInterval {
 	 *                          SCORM specification
 	 */
 	public void setString(String s) throws ParseException {
-		if (s.length() < 3)
-			throw new IllegalArgumentException("The value '" + s +
-				"' is is no valid time interval!");
+		parse(s, 0, s.length());
+	}
 
-		final Pattern p = Pattern.compile("P(\\d+Y)?(\\d+M)?(\\d+D)?(T(\\d+H)?(\\d+M)?(\\d+(?:\\.\\d{1,2})S)?)?");
-		Matcher m = p.matcher(s);
-		if (!m.matches())
-			throw new ParseException("The timeinterval '" + s +
-					"' does not match the format of the SCORM 2004 specification!", 0);
-		int max = m.groupCount();
-		for (int i=1; i<=max; i++) {
-			String g = m.group(i);
-			if (g == null)
+	/** Set all values of the time interval by parsing a part of a
+	 *  character sequence. The format is the ISO 8601 duration, e.g.
+	 *  <code>P1DT2H30M5.5S</code>. The fraction of the seconds is
+	 *  limited to two digits. Values which are not given are set to 0.
+	 *  If the format is not correct then the time interval is not
+	 *  changed.
+	 *  
+	 * @param s  the characters
+	 * @param from  index of the first character
+	 * @param to  index after the last character
+	 * @throws ParseException  The format is not correct according to the
+	 *                          SCORM specification
+	 */
+	public void parse(CharSequence s, int from, int to) throws ParseException {
+		if (to - from < 3 || s.charAt(from) != 'P')
+			throw error(s, from, to, from);
+		int y = 0;
+		int mo = 0;
+		int d = 0;
+		int h = 0;
+		int mi = 0;
+		int sec = 0;
+		int centis = 0;
+		// designators in the allowed order, 'T' separates date and time
+		final String order = "YMDTHMS";
+		int next = 0;
+		int i = from + 1;
+		while (i < to) {
+			char c = s.charAt(i);
+			if (c == 'T') {
+				if (next > 3 || i + 1 == to)
+					throw error(s, from, to, i);
+				next = 4;
+				i++;
 				continue;
-			if (g.charAt(0)!='T') {
-				int val = Integer.parseInt(g.substring(0,g.length()-1));
-				switch (g.charAt(g.length()-1)) {
-				case 'Y':
-					year = val;
-					continue;
-				case 'M':
-					month = val;
-					continue;
-				case 'D':
-					day = val;
-					continue;
-				}
-			} else {
-				for (++i; i<=max; i++) {
-					g = m.group(i);
-					if (g == null)
-						continue;
-					String val = g.substring(0, g.length() - 1);
-					switch (g.charAt(g.length()-1)) {
-					case 'H':
-						hour = Integer.parseInt(val);
-						continue;
-					case 'M':
-						minute = Integer.parseInt(val);
-						continue;
-					case 'S':
-						second = Float.parseFloat(val);
-						continue;
-					}
+			}
+			int start = i;
+			int val = 0;
+			for (; i < to && (c = s.charAt(i)) >= '0' && c <= '9'; i++) {
+				if (val > (Integer.MAX_VALUE - 9) / 10)
+					throw error(s, from, to, i);
+				val = 10 * val + c - '0';
+			}
+			if (i == start || i == to)
+				throw error(s, from, to, i);
+			int frac = 0;
+			if (c == '.') {
+				int digits = 0;
+				for (i++; i < to && (c = s.charAt(i)) >= '0' && c <= '9'; i++, digits++)
+					frac = 10 * frac + c - '0';
+				if (digits == 0 || digits > 2 || i == to || c != 'S')
+					throw error(s, from, to, i);
+				if (digits == 1)
+					frac *= 10;
+			}
+			// the designator M is the month in the date and the minute in the time part
+			int field = order.indexOf(c, next);
+			if (field < 0 || field == 3 || (field < 3) != (next < 4))
+				throw error(s, from, to, i);
+			switch (field) {
+			case 0:
+				y = val;
+				break;
+			case 1:
+				mo = val;
+				break;
+			case 2:
+				d = val;
+				break;
+			case 4:
+				h = val;
+				break;
+			case 5:
+				mi = val;
+				break;
+			default:
+				sec = val;
+				centis = frac;
+			}
+			next = field + 1;
+			i++;
+		}
+		year = y;
+		month = mo;
+		day = d;
+		hour = h;
+		minute = mi;
+		second = sec + centis / 100F;
+	}
+
+	/** Append the ISO 8601 representation to a character sequence.
+	 *  The seconds are rounded to two digits of fraction.
+	 * 
+	 * @param a  the character sequence to append to
+	 * @return the character sequence
+	 * @throws IOException  thrown by the character sequence
+	 */
+	public Appendable encodeTo(Appendable a) throws IOException {
+		a.append('P');
+		boolean empty = true;
+		if (year != 0) {
+			appendInt(a, year).append('Y');
+			empty = false;
+		}
+		if (month != 0) {
+			appendInt(a, month).append('M');
+			empty = false;
+		}
+		if (day != 0) {
+			appendInt(a, day).append('D');
+			empty = false;
+		}
+		long centis = (long)(second * 100D + 0.5D);
+		if (hour != 0 || minute != 0 || centis != 0) {
+			a.append('T');
+			if (hour != 0)
+				appendInt(a, hour).append('H');
+			if (minute != 0)
+				appendInt(a, minute).append('M');
+			if (centis != 0) {
+				appendInt(a, centis / 100);
+				int frac = (int)(centis % 100);
+				if (frac != 0) {
+					a.append('.').append((char)('0' + frac / 10));
+					if (frac % 10 != 0)
+						a.append((char)('0' + frac % 10));
 				}
+				a.append('S');
 			}
+			empty = false;
 		}
+		// if everything is 0 then a single value has to be given
+		if (empty)
+			a.append("0Y");
+		return a;
 	}
-	
+
+	/** Append the ISO 8601 representation to a character sequence.
+	 * 
+	 * @param a  the character sequence to append to
+	 * @return the character sequence
+	 * @throws IOException  thrown by the character sequence
+	 * @see #encodeTo(Appendable)
+	 */
+	public Appendable appendTo(Appendable a) throws IOException {
+		return encodeTo(a);
+	}
+
 	/** Get a <code>String</code> representation.
 	 * 
 	 * @return <code>String</code> representation
 	 */
 	public String toString() {
-		StringBuilder b = new StringBuilder("P");
-		if (year != 0)
-			b.append(year).append('Y');
-		if (month != 0)
-			b.append(month).append('M');
-		if (day != 0)
-			b.append(day).append('D');
-		StringBuilder b2 = new StringBuilder("T");
-		if (hour != 0)
-			b2.append(hour).append('H');
-		if (minute != 0)
-			b2.append(minute).append('M');
-		if (second!=0F) {
-			int sec = Float.valueOf(second).intValue();
-			b2.append(sec);
-			int frac = Float.valueOf((second - sec + 0.005F) * 100F).intValue();
-			if (frac!=0)
-				b2.append('.').append(frac);
-			b2.append('S');
-		}
-		if (b2.length()>1)
-			b.append(b2);
-		// if everything is 0 then a single value has to be given
-		if (b.length() == 1)
-			b.append("0Y");
-		return b.toString();
+		return ScormEncoding.toString(this);
+	}
+
+	/** Append the decimal representation of a positive number
+	 *  without creating a <code>String</code>.
+	 * 
+	 * @param a  the character sequence to append to
+	 * @param n  the number
+	 * @return the character sequence
+	 * @throws IOException  thrown by the character sequence
+	 */
+	private static Appendable appendInt(Appendable a, long n) throws IOException {
+		long p = 1;
+		while (p <= n / 10)
+			p *= 10;
+		for (; p > 0; p /= 10)
+			a.append((char)('0' + n / p % 10));
+		return a;
+	}
+
+	/** Create the exception reporting an invalid time interval.
+	 * 
+	 * @param s  the characters
+	 * @param from  index of the first character
+	 * @param to  index after the last character
+	 * @param i  index of the error
+	 * @return the exception
+	 */
+	private static ParseException error(CharSequence s, int from, int to, int i) {
+		return new ParseException("The timeinterval '" + s.subSequence(from, to) +
+				"' does not match the format of the SCORM 2004 specification!", i);
 	}
 }
@@ -0,0 +1,236 @@
+/** Copyright 2010 Timo Scheuer
+ * 
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.dfki.allegro.scorm.util;
+
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/** Splits character sequences at a literal delimiter, e.g. the SCORM
+ *  delimiters <code>[,]</code>, <code>[.]</code> and <code>[:]</code>.
+ *  No regular expressions are used, the characters are scanned once.
+ *
+ *  A tokenizer is a cursor over the tokens of a character sequence.
+ *  It can be reused for further sequences with <code>reset()</code>.
+ *  The tokens are given by their offsets, so reading them does not
+ *  create any objects. Every delimiter separates two tokens, hence
+ *  <code>a[,]</code> consists of the tokens <code>a</code> and the
+ *  empty token, unless <code>skipTrailingEmpty()</code> is used. A
+ *  tokenizer is not thread-safe.
+ *
+ * @author Timo Scheuer
+ *
+ */
+public final class Tokenizer {
+
+	/** Delimiter of the elements of an array.*/
+	public static final String ARRAY = "[,]";
+	/** Delimiter of the parts of a record, e.g. source and target.*/
+	public static final String RECORD = "[.]";
+	/** Delimiter of the bounds of a numeric range.*/
+	public static final String RANGE = "[:]";
+
+	/** The delimiter.*/
+	private final String delimiter;
+	/** The characters to split.*/
+	private CharSequence chars;
+	/** Index after the last character to split.*/
+	private int limit;
+	/** Index of the first character of the actual token.*/
+	private int start;
+	/** Index after the last character of the actual token.*/
+	private int end;
+	/** <code>true</code> iff there is another token.*/
+	private boolean more;
+
+
+	/** Ctor.
+	 * 
+	 * @param d  the delimiter
+	 */
+	public Tokenizer(String d) {
+		if (d.length() == 0)
+			throw new IllegalArgumentException("The delimiter must not be empty!");
+		delimiter = d;
+	}
+
+	/** Start splitting a character sequence.
+	 * 
+	 * @param s  the characters
+	 * @return this tokenizer
+	 */
+	public Tokenizer reset(CharSequence s) {
+		return reset(s, 0, s.length());
+	}
+
+	/** Start splitting a part of a character sequence.
+	 * 
+	 * @param s  the characters
+	 * @param from  index of the first character
+	 * @param to  index after the last character
+	 * @return this tokenizer
+	 */
+	public Tokenizer reset(CharSequence s, int from, int to) {
+		chars = s;
+		limit = to;
+		start = -1;
+		end = from - delimiter.length();
+		more = true;
+		return this;
+	}
+
+	/** Skip the empty tokens at the end, i.e. split like
+	 *  <code>split(s, d)</code> does. Has to be called directly after
+	 *  <code>reset()</code>. The result is exact for delimiters which
+	 *  cannot overlap themselves, e.g. the SCORM delimiters.
+	 * 
+	 * @return this tokenizer
+	 */
+	public Tokenizer skipTrailingEmpty() {
+		int n = delimiter.length();
+		int from = end + n;
+		int to = limit;
+		while (to - from >= n && matches(chars, delimiter, to - n))
+			to -= n;
+		// only delimiters, hence no tokens at all
+		if (to < limit && to == from)
+			more = false;
+		limit = to;
+		return this;
+	}
+
+	/** Move to the next token.
+	 * 
+	 * @return <code>true</code> iff there is another token
+	 */
+	public boolean next() {
+		if (!more)
+			return false;
+		start = end + delimiter.length();
+		end = indexOf(chars, delimiter, start, limit);
+		if (end < 0) {
+			end = limit;
+			more = false;
+		}
+		return true;
+	}
+
+	/** Get the index of the first character of the actual token.
+	 * 
+	 * @return index of the first character
+	 */
+	public int start() {
+		return start;
+	}
+
+	/** Get the index after the last character of the actual token.
+	 * 
+	 * @return index after the last character
+	 */
+	public int end() {
+		return end;
+	}
+
+	/** Get the actual token.
+	 * 
+	 * @return the token
+	 */
+	public String token() {
+		return chars.subSequence(start, end).toString();
+	}
+
+	/** Split a <code>String</code> at a delimiter. The result is the
+	 *  same as the result of <code>String.split()</code> with the
+	 *  quoted delimiter as regular expression, i.e. trailing empty
+	 *  tokens are removed.
+	 * 
+	 * @param s  the <code>String</code> to split
+	 * @param d  the delimiter
+	 * @return the tokens
+	 */
+	public static String[] split(String s, String d) {
+		return split(s, d, 0);
+	}
+
+	/** Split a <code>String</code> at a delimiter. The result is the
+	 *  same as the result of <code>String.split()</code> with the
+	 *  quoted delimiter as regular expression and the given limit.
+	 *  A negative limit keeps all tokens, e.g. <code>a[:]</code> has
+	 *  the tokens <code>a</code> and the empty token.
+	 * 
+	 * @param s  the <code>String</code> to split
+	 * @param d  the delimiter
+	 * @param n  maximum number of tokens, 0 to remove trailing empty
+	 *            tokens, negative to keep all tokens
+	 * @return the tokens
+	 */
+	public static String[] split(String s, String d, int n) {
+		int i = s.indexOf(d);
+		if (i < 0)
+			return new String[] {s};
+		List<String> l = new ArrayList<String>();
+		int from = 0;
+		for (; i >= 0 && (n <= 0 || l.size() < n - 1); i = s.indexOf(d, from)) {
+			l.add(s.substring(from, i));
+			from = i + d.length();
+		}
+		l.add(s.substring(from));
+		int size = l.size();
+		if (n == 0)
+			while (size > 0 && l.get(size - 1).length() == 0)
+				size--;
+		return l.subList(0, size).toArray(new String[size]);
+	}
+
+	/** Check if a delimiter starts at a given index.
+	 * 
+	 * @param s  the characters
+	 * @param d  the delimiter
+	 * @param i  index of the first character to compare
+	 * @return <code>true</code> iff the delimiter starts at the index
+	 */
+	private static boolean matches(CharSequence s, String d, int i) {
+		for (int j=0; j<d.length(); j++)
+			if (s.charAt(i + j) != d.charAt(j))
+				return false;
+		return true;
+	}
+
+	/** Find a delimiter in a part of a character sequence.
+	 * 
+	 * @param s  the characters
+	 * @param d  the delimiter
+	 * @param from  index of the first character to search
+	 * @param to  index after the last character to search
+	 * @return index of the delimiter or <code>-1</code>
+	 */
+	private static int indexOf(CharSequence s, String d, int from, int to) {
+		char first = d.charAt(0);
+		int last = to - d.length();
+		for (int i=from; i<=last; i++) {
+			if (s.charAt(i) != first)
+				continue;
+			int j = 1;
+			while (j < d.length() && s.charAt(i + j) == d.charAt(j))
+				j++;
+			if (j == d.length())
+				return i;
+		}
+		return -1;
+	}
+
+}
@@ -0,0 +1,120 @@
+/** Copyright 2010 Timo Scheuer
+ * 
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.dfki.allegro.scorm.util;
+
+
+/** Level-gated tracing of the communication with the LMS. A trace
+ *  record consists of an event (e.g. the name of the SCORM function),
+ *  a key and a value. The parts are handed to the sink as they are,
+ *  so a disabled level costs one comparison and no allocation as long
+ *  as the caller does not build the parts itself. Callers which have
+ *  to build a part check <code>isEnabled</code> first.
+ *  
+ *  The default level is <code>WARN</code> and the default sink
+ *  prints to <code>System.err</code>.
+ * 
+ * @author Timo Scheuer
+ *
+ */
+public final class Trace {
+
+	/** Trace levels. A level includes all levels declared before.*/
+	public enum Level {
+		/** Nothing is traced.*/
+		OFF,
+		/** Failures.*/
+		ERROR,
+		/** Problems the library can handle, e.g. standard violations
+		 *  of the LMS in non-strict mode.
+		 */
+		WARN,
+		/** Session life cycle.*/
+		INFO,
+		/** Every call of the LMS.*/
+		DEBUG
+	}
+
+	/** Ordinal of the actual level.*/
+	private static volatile int threshold = Level.WARN.ordinal();
+	/** Receiver of the trace records.*/
+	private static volatile TraceSink sink = new PrintStreamTraceSink(System.err);
+
+
+	/** Ctor.
+	 * 
+	 */
+	private Trace() {
+	}
+
+	/** Set the trace level.
+	 * 
+	 * @param l  records of this level and all more severe levels
+	 *            are traced
+	 */
+	public static void setLevel(Level l) {
+		threshold = l.ordinal();
+	}
+
+	/** Get the trace level.
+	 * 
+	 * @return trace level
+	 */
+	public static Level getLevel() {
+		return Level.values()[threshold];
+	}
+
+	/** Set the receiver of the trace records.
+	 * 
+	 * @param s  trace sink
+	 */
+	public static void setSink(TraceSink s) {
+		if (s == null)
+			throw new IllegalArgumentException("The trace sink must not be null!");
+		sink = s;
+	}
+
+	/** Get the receiver of the trace records.
+	 * 
+	 * @return trace sink
+	 */
+	public static TraceSink getSink() {
+		return sink;
+	}
+
+	/** Check if a level is traced.
+	 * 
+	 * @param l  trace level
+	 * @return <code>true</code> iff records of the level are traced
+	 */
+	public static boolean isEnabled(Level l) {
+		int o = l.ordinal();
+		return o > 0 && o <= threshold;
+	}
+
+	/** Trace a record if its level is enabled.
+	 * 
+	 * @param l  trace level
+	 * @param event  what happened, e.g. the SCORM function
+	 * @param key  data model element or <code>null</code>
+	 * @param value  value or result or <code>null</code>
+	 */
+	public static void log(Level l, String event, String key, String value) {
+		int o = l.ordinal();
+		if (o > 0 && o <= threshold)
+			sink.trace(l, event, key, value);
+	}
+
+}
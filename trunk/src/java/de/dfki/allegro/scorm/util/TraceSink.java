@@ -0,0 +1,37 @@
+/** Copyright 2010 Timo Scheuer
+ * 
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.dfki.allegro.scorm.util;
+
+
+/** Receiver of trace records.
+ * 
+ * @author Timo Scheuer
+ *
+ * @see de.dfki.allegro.scorm.util.Trace
+ */
+public interface TraceSink {
+
+	/** Receive a trace record. The method may be called by
+	 *  different threads.
+	 * 
+	 * @param l  trace level
+	 * @param event  what happened, e.g. the SCORM function
+	 * @param key  data model element or <code>null</code>
+	 * @param value  value or result or <code>null</code>
+	 */
+	public void trace(Trace.Level l, String event, String key, String value);
+
+}
@@ -0,0 +1,153 @@
+/** Copyright 2010 Timo Scheuer
+ * 
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.dfki.allegro.scorm;
+
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Random;
+
+
+/** Round-trip test of the compressed suspend data. The LMS is
+ *  simulated by an <code>InMemoryTransport</code> which defines three
+ *  data stores. Run it with
+ *  <code>java de.dfki.allegro.scorm.SuspendDataCodecTest</code>.
+ *
+ * @author Timo Scheuer
+ *
+ */
+public final class SuspendDataCodecTest {
+
+	/** Ids of the data stores.*/
+	private static final String[] STORES = {"urn:s0", "urn:s1", "urn:s2"};
+
+
+	/** No instances.
+	 * 
+	 */
+	private SuspendDataCodecTest() {
+	}
+
+	/** Run the test.
+	 * 
+	 * @param args  not used
+	 * @throws IOException  the suspend data cannot be read or written
+	 */
+	public static void main(String[] args) throws IOException {
+		InMemoryTransport t = new InMemoryTransport();
+		for (int i=0; i<STORES.length; i++) {
+			t.preset("adl.data." + i + ".id", STORES[i]);
+			t.preset("adl.data." + i + ".store", "");
+		}
+		t.preset("cmi.suspend_data", "legacy {data}");
+		LoginSession l = ScormAdapter.getInstance(t).getLoginSession();
+		l.initializeCommunicationSession();
+		State s = l.getLearner().getActualAttempt().getState();
+		Random r = new Random(2010);
+
+		// suspend data written without the codec is read unchanged
+		check("legacy data", "legacy {data}", read(s));
+
+		// small data of any length, including characters beyond ASCII
+		for (int n=0; n<64; n++) {
+			String v = random(r, n, 26) + "\u00e4\u20ac";
+			write(s, v, STORES);
+			check("small data", v, read(s));
+		}
+		if (t.getValue("cmi.suspend_data").indexOf("{continue=") >= 0)
+			throw new AssertionError("Small data has been written to a store!");
+
+		// data which does not fit into the suspend data
+		String big = random(r, 250000, 26);
+		write(s, big, STORES);
+		check("data in three stores", big, read(s));
+		if (!t.getValue("cmi.suspend_data").startsWith(SuspendDataCodec.HEADER +
+				"{continue=urn:s0[,]urn:s1[,]urn:s2}"))
+			throw new AssertionError("The data has not been continued in the stores!");
+
+		// data which does not fit leaves the old data unchanged
+		try {
+			write(s, random(r, 250000, 26), STORES[0]);
+			throw new AssertionError("Data which does not fit has been written!");
+		} catch (IOException e) {
+			// expected
+		}
+		check("data kept after a failed write", big, read(s));
+		System.out.println("all checks passed");
+	}
+
+	/** Create a random string.
+	 * 
+	 * @param r  the random numbers
+	 * @param n  length of the string
+	 * @param letters  number of different letters
+	 * @return the string
+	 */
+	private static String random(Random r, int n, int letters) {
+		StringBuilder b = new StringBuilder(n);
+		for (int i=0; i<n; i++)
+			b.append((char)('a' + r.nextInt(letters)));
+		return b.toString();
+	}
+
+	/** Write the suspend data with the codec.
+	 * 
+	 * @param s  the state
+	 * @param v  the data
+	 * @param stores  ids of the stores which may be used
+	 * @throws IOException  the data does not fit
+	 */
+	private static void write(State s, String v, String... stores) throws IOException {
+		Writer w = s.openAttemptSuspendDataWriter(stores);
+		try {
+			w.write(v);
+		} finally {
+			w.close();
+		}
+	}
+
+	/** Read the suspend data with the codec.
+	 * 
+	 * @param s  the state
+	 * @return the data
+	 * @throws IOException  the data is not correctly encoded
+	 */
+	private static String read(State s) throws IOException {
+		Reader r = s.openAttemptSuspendDataReader();
+		StringBuilder b = new StringBuilder();
+		char[] c = new char[1024];
+		for (int n; (n = r.read(c)) >= 0; )
+			b.append(c, 0, n);
+		r.close();
+		return b.toString();
+	}
+
+	/** Compare the data read with the data written.
+	 * 
+	 * @param what  description of the check
+	 * @param expected  the data written
+	 * @param actual  the data read
+	 * @throws AssertionError the data differs
+	 */
+	private static void check(String what, String expected, String actual)
+	throws AssertionError {
+		if (!expected.equals(actual))
+			throw new AssertionError(what + ": read " + actual.length() +
+					" characters instead of " + expected.length() + "!");
+	}
+
+}
@@ -0,0 +1,127 @@
+/** Copyright 2010 Timo Scheuer
+ * 
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.dfki.allegro.scorm.util;
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+
+/** Conformance test of the <code>Tokenizer</code>. Random strings made
+ *  of the characters of the SCORM delimiters are split with
+ *  <code>Tokenizer</code> and with <code>String.split()</code> using
+ *  the quoted delimiter; the tokens have to be the same. Run it with
+ *  <code>java de.dfki.allegro.scorm.util.TokenizerTest</code>.
+ *
+ * @author Timo Scheuer
+ *
+ */
+public final class TokenizerTest {
+
+	/** The delimiters to test.*/
+	private static final String[] DELIMITERS = {
+		Tokenizer.ARRAY, Tokenizer.RECORD, Tokenizer.RANGE};
+	/** The characters of the random strings.*/
+	private static final String CHARS = "[,.:]ab";
+	/** The limits to test.*/
+	private static final int[] LIMITS = {-1, 0, 1, 2, 3};
+	/** Number of random strings per delimiter.*/
+	private static final int RUNS = 100000;
+
+
+	/** No instances.
+	 * 
+	 */
+	private TokenizerTest() {
+	}
+
+	/** Run the test.
+	 * 
+	 * @param args  not used
+	 */
+	public static void main(String[] args) {
+		Random r = new Random(2010);
+		int checks = 0;
+		for (String d : DELIMITERS) {
+			Tokenizer t = new Tokenizer(d);
+			for (int i=0; i<RUNS; i++) {
+				String s = randomString(r, d);
+				String q = Pattern.quote(d);
+				for (int n : LIMITS)
+					check(s, d, n, Tokenizer.split(s, d, n), s.split(q, n));
+				check(s, d, 0, Tokenizer.split(s, d), s.split(q));
+				check(s, d, -1, tokens(t.reset(s)), s.split(q, -1));
+				check(s, d, 0, tokens(t.reset(s).skipTrailingEmpty()), s.split(q));
+				// a part of a longer sequence
+				String p = "x" + d + s + d + "x";
+				check(s, d, -1, tokens(t.reset(p, 1 + d.length(),
+						p.length() - 1 - d.length())), s.split(q, -1));
+				checks += LIMITS.length + 4;
+			}
+		}
+		System.out.println(checks + " checks passed");
+	}
+
+	/** Create a random string which often contains the delimiter.
+	 * 
+	 * @param r  the random numbers
+	 * @param d  the delimiter
+	 * @return the string
+	 */
+	private static String randomString(Random r, String d) {
+		StringBuilder b = new StringBuilder();
+		for (int i=0, n=r.nextInt(12); i<n; i++) {
+			if (r.nextInt(3) == 0)
+				b.append(d);
+			else
+				b.append(CHARS.charAt(r.nextInt(CHARS.length())));
+		}
+		return b.toString();
+	}
+
+	/** Get all tokens of a tokenizer.
+	 * 
+	 * @param t  the tokenizer
+	 * @return the tokens
+	 */
+	private static String[] tokens(Tokenizer t) {
+		List<String> l = new ArrayList<String>();
+		while (t.next())
+			l.add(t.token());
+		return l.toArray(new String[l.size()]);
+	}
+
+	/** Compare the tokens with the expected ones.
+	 * 
+	 * @param s  the split string
+	 * @param d  the delimiter
+	 * @param n  the limit
+	 * @param actual  the tokens of the <code>Tokenizer</code>
+	 * @param expected  the tokens of <code>String.split()</code>
+	 * @throws AssertionError the tokens differ
+	 */
+	private static void check(String s, String d, int n, String[] actual,
+			String[] expected) throws AssertionError {
+		if (!Arrays.equals(actual, expected))
+			throw new AssertionError("'" + s + "' split at '" + d + "' with limit " +
+					n + ": " + Arrays.toString(actual) + " instead of " +
+					Arrays.toString(expected));
+	}
+
+}